@@ -0,0 +1,138 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code FindMeetingQuery} end to end and phase by phase. Run with {@code -prof gc} to see
+ * the allocation rate next to the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FindMeetingQueryBenchmark {
+  @Param({"100", "1000", "10000"})
+  public int numEvents;
+
+  @Param({"2", "8"})
+  public int attendeesPerEvent;
+
+  @Param({"2", "8"})
+  public int mandatoryAttendees;
+
+  @Param({"0", "4", "16"})
+  public int optionalAttendees;
+
+  @Param({"30", "120"})
+  public int duration;
+
+  @Param({"4", "16"})
+  public int density;
+
+  private final FindMeetingQuery query = new FindMeetingQuery();
+
+  private List<Event> events;
+  private MeetingRequest[] requests;
+  private AttendeeMask[] masks;
+  private AttendeeIndex[] indexes;
+  private MinuteBitmapIndex bitmaps;
+  private long[][] mandatoryTimes;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Workload workload = Workload.generate(numEvents, attendeesPerEvent, mandatoryAttendees,
+        optionalAttendees, duration, density);
+    events = workload.events;
+    requests = workload.requests.toArray(new MeetingRequest[0]);
+
+    // Precompute the input of every phase so that each benchmark only measures its own phase.
+    masks = new AttendeeMask[requests.length];
+    indexes = new AttendeeIndex[requests.length];
+    mandatoryTimes = new long[requests.length][];
+    bitmaps = MinuteBitmapIndex.of(events);
+    for (int i = 0; i < requests.length; i++) {
+      Set<String> attendees = new HashSet<>(requests[i].getAttendees());
+      attendees.addAll(requests[i].getOptionalAttendees());
+      masks[i] = AttendeeMask.of(attendees, AttendeeDictionary.global());
+      indexes[i] = AttendeeIndex.of(events, masks[i]);
+      mandatoryTimes[i] = FindMeetingQuery.getViableMeetingTimes(indexes[i], duration,
+          requests[i].getAttendees(), TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1);
+    }
+  }
+
+  private int nextRequest() {
+    int i = next;
+    next = (i + 1) % requests.length;
+    return i;
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return query.query(events, requests[nextRequest()]);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryIndexed() {
+    int i = nextRequest();
+    return query.query(indexes[i], requests[i]);
+  }
+
+  @Benchmark
+  public AttendeeIndex buildIndex() {
+    return AttendeeIndex.of(events, masks[nextRequest()]);
+  }
+
+  @Benchmark
+  public long[] mandatoryPhase() {
+    int i = nextRequest();
+    return FindMeetingQuery.getViableMeetingTimes(indexes[i], duration,
+        requests[i].getAttendees(), TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1);
+  }
+
+  @Benchmark
+  public long[] optionalPhase() {
+    int i = nextRequest();
+    return FindMeetingQuery.optionalAttendees(
+        mandatoryTimes[i], indexes[i], duration, requests[i].getOptionalAttendees());
+  }
+
+  @Benchmark
+  public long[] mandatoryPhaseBitmap() {
+    return FindMeetingQuery.getViableMeetingTimes(bitmaps, duration,
+        requests[nextRequest()].getAttendees(), TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1);
+  }
+}
@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Synthetic calendars and meeting requests for the benchmarks. A workload is generated from a fixed
+ * seed, so the same parameters always produce the same events and requests.
+ */
+final class Workload {
+  private static final long SEED = 20200101L;
+
+  // The number of requests each benchmark cycles through.
+  private static final int NUM_REQUESTS = 64;
+
+  final List<Event> events;
+  final List<MeetingRequest> requests;
+
+  private Workload(List<Event> events, List<MeetingRequest> requests) {
+    this.events = events;
+    this.requests = requests;
+  }
+
+  /**
+   * Generates {@code numEvents} events with {@code attendeesPerEvent} attendees each. The attendees
+   * are drawn from a pool sized so that every attendee has {@code density} events on average.
+   * Events start on a five-minute boundary and last between 15 minutes and two hours.
+   */
+  static Workload generate(int numEvents, int attendeesPerEvent, int mandatoryAttendees,
+      int optionalAttendees, int duration, int density) {
+    Random random = new Random(SEED);
+    int poolSize = Math.max(
+        Math.max(attendeesPerEvent, mandatoryAttendees + optionalAttendees),
+        numEvents * attendeesPerEvent / Math.max(1, density));
+    String[] pool = new String[poolSize];
+    for (int i = 0; i < poolSize; i++) {
+      pool[i] = "Person " + i;
+    }
+
+    List<Event> events = new ArrayList<>(numEvents);
+    for (int i = 0; i < numEvents; i++) {
+      int length = 15 * (1 + random.nextInt(8));
+      int start = 5 * random.nextInt((TimeRange.END_OF_DAY + 1 - length) / 5);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, length),
+          pick(random, pool, attendeesPerEvent)));
+    }
+
+    List<MeetingRequest> requests = new ArrayList<>(NUM_REQUESTS);
+    for (int i = 0; i < NUM_REQUESTS; i++) {
+      List<String> people =
+          new ArrayList<>(pick(random, pool, mandatoryAttendees + optionalAttendees));
+      MeetingRequest request = new MeetingRequest(people.subList(0, mandatoryAttendees), duration);
+      for (String person : people.subList(mandatoryAttendees, people.size())) {
+        request.addOptionalAttendee(person);
+      }
+      requests.add(request);
+    }
+    return new Workload(events, requests);
+  }
+
+  /**
+   * Returns {@code count} distinct people from {@code pool}.
+   */
+  private static Collection<String> pick(Random random, String[] pool, int count) {
+    Set<String> people = new LinkedHashSet<>();
+    while (people.size() < count) {
+      people.add(pool[random.nextInt(pool.length)]);
+    }
+    return people;
+  }
+}
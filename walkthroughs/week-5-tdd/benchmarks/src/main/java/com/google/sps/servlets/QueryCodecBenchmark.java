@@ -0,0 +1,187 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.AttendeeDictionary;
+import com.google.sps.AttendeeIndex;
+import com.google.sps.BusyTimes;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the JSON and binary forms of {@code /query} over a full round trip: the client encodes a
+ * request, the servlet decodes it and encodes the meeting times, and the client decodes them. The
+ * search itself is left out, so only the cost of the wire format is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryCodecBenchmark {
+  @Param({"4", "1000"})
+  public int optionalAttendees;
+
+  @Param({"2", "48"})
+  public int numRanges;
+
+  // The names are interned in setUp, so an empty index still resolves them through the dictionary.
+  private final BusyTimes source = AttendeeIndex.of(Collections.<Event>emptyList());
+  private final JsonQueryCodec json = new JsonQueryCodec(source, Long.MAX_VALUE, Integer.MAX_VALUE);
+  private final BinaryQueryCodec binary =
+      new BinaryQueryCodec(source, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+  private List<String> attendees;
+  private List<String> optional;
+  private List<TimeRange> ranges;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+    attendees = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      attendees.add("attendee" + i + "@example.com");
+      dictionary.intern(attendees.get(i));
+    }
+    optional = new ArrayList<>();
+    for (int i = 0; i < optionalAttendees; i++) {
+      optional.add("optional" + i + "@example.com");
+      dictionary.intern(optional.get(i));
+    }
+
+    ranges = new ArrayList<>();
+    int step = TimeRange.WHOLE_DAY.duration() / numRanges;
+    for (int i = 0; i < numRanges; i++) {
+      ranges.add(TimeRange.fromStartDuration(i * step, step / 2));
+    }
+  }
+
+  @Benchmark
+  public void jsonRoundTrip(Blackhole blackhole) throws IOException {
+    ByteArrayOutputStream requestBytes = new ByteArrayOutputStream();
+    Writer requestWriter = new OutputStreamWriter(requestBytes, StandardCharsets.UTF_8);
+    JsonWriter requestJson = new JsonWriter(requestWriter);
+    requestJson.beginObject();
+    requestJson.name("duration").value(30);
+    writeNames(requestJson.name("attendees"), attendees);
+    writeNames(requestJson.name("optional_attendees"), optional);
+    requestJson.endObject();
+    requestJson.flush();
+
+    MeetingRequest request = json.readRequest(new InputStreamReader(
+        new ByteArrayInputStream(requestBytes.toByteArray()), StandardCharsets.UTF_8));
+
+    ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+    Writer responseWriter = new OutputStreamWriter(responseBytes, StandardCharsets.UTF_8);
+    json.writeTimeRanges(ranges, responseWriter);
+
+    Reader responseReader = new InputStreamReader(
+        new ByteArrayInputStream(responseBytes.toByteArray()), StandardCharsets.UTF_8);
+    JsonReader responseJson = new JsonReader(responseReader);
+    List<TimeRange> result = new ArrayList<>();
+    responseJson.beginArray();
+    while (responseJson.hasNext()) {
+      int start = 0;
+      int duration = 0;
+      responseJson.beginObject();
+      while (responseJson.hasNext()) {
+        if (responseJson.nextName().equals("start")) {
+          start = responseJson.nextInt();
+        } else {
+          duration = responseJson.nextInt();
+        }
+      }
+      responseJson.endObject();
+      result.add(TimeRange.fromStartDuration(start, duration));
+    }
+    responseJson.endArray();
+    blackhole.consume(request);
+    blackhole.consume(result);
+  }
+
+  @Benchmark
+  public void binaryRoundTrip(Blackhole blackhole) throws IOException {
+    ByteArrayOutputStream requestBytes = new ByteArrayOutputStream();
+    DataOutputStream requestData = new DataOutputStream(requestBytes);
+    requestData.writeInt(30);
+    writeNames(requestData, attendees);
+    writeNames(requestData, optional);
+    requestData.flush();
+
+    MeetingRequest request =
+        binary.readRequest(new ByteArrayInputStream(requestBytes.toByteArray()));
+
+    ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+    binary.writeTimeRanges(ranges, responseBytes);
+
+    DataInputStream responseData =
+        new DataInputStream(new ByteArrayInputStream(responseBytes.toByteArray()));
+    int count = responseData.readInt();
+    List<TimeRange> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(TimeRange.fromStartDuration(
+          responseData.readUnsignedShort(), responseData.readUnsignedShort()));
+    }
+    blackhole.consume(request);
+    blackhole.consume(result);
+  }
+
+  private static void writeNames(JsonWriter json, List<String> names) throws IOException {
+    json.beginArray();
+    for (String name : names) {
+      json.value(name);
+    }
+    json.endArray();
+  }
+
+  private static void writeNames(DataOutputStream data, List<String> names) throws IOException {
+    data.writeInt(names.size());
+    for (String name : names) {
+      data.writeUTF(name);
+    }
+  }
+}
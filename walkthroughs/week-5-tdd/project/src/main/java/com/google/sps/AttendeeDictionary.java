@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps attendee names to dense integer ids, starting at zero. Ids are never reused, so an id stays
+ * valid for the lifetime of the dictionary. Lookups are safe to run concurrently with
+ * {@code intern}.
+ */
+public final class AttendeeDictionary {
+  /** Returned by {@code idOf} for names that have never been interned. */
+  public static final int UNKNOWN = -1;
+
+  private static final AttendeeDictionary GLOBAL = new AttendeeDictionary();
+
+  private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+  private volatile String[] names = new String[16];
+  private volatile int size = 0;
+
+  /**
+   * Creates an empty dictionary. Most callers should use {@code global()} instead, since event ids
+   * come from the global dictionary.
+   */
+  public AttendeeDictionary() {}
+
+  /**
+   * Returns the dictionary shared by every {@code Event}.
+   *
+   * <p>The global dictionary only grows: every name that an event has named stays interned for the
+   * life of the process, at the cost of one map entry and one array slot per distinct name. Anything
+   * built for a single query, such as an {@code AttendeeMask}, is sized by the attendees the query
+   * names rather than by {@code size()}.
+   */
+  public static AttendeeDictionary global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Returns the id of {@code name}, assigning the next free id if the name is new.
+   */
+  public int intern(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+
+    synchronized (this) {
+      id = ids.get(name);
+      if (id != null) {
+        return id;
+      }
+
+      int newId = size;
+      String[] current = names;
+      if (newId == current.length) {
+        current = Arrays.copyOf(current, newId * 2);
+      }
+      current[newId] = name;
+      // Publish the name before the id so that {@code nameOf} works for every id handed out.
+      names = current;
+      size = newId + 1;
+      ids.put(name, newId);
+      return newId;
+    }
+  }
+
+  /**
+   * Interns every name in {@code names} and returns their ids in ascending order.
+   */
+  int[] internSorted(Collection<String> names) {
+    int[] sorted = new int[names.size()];
+    int i = 0;
+    for (String name : names) {
+      sorted[i++] = intern(name);
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * Returns the id of {@code name}, or {@code UNKNOWN} if it has never been interned.
+   */
+  public int idOf(String name) {
+    Integer id = ids.get(name);
+    return id == null ? UNKNOWN : id;
+  }
+
+  /**
+   * Returns the name with the given id.
+   */
+  public String nameOf(int id) {
+    if (id < 0 || id >= size) {
+      throw new IllegalArgumentException("Unknown attendee id: " + id);
+    }
+    return names[id];
+  }
+
+  /**
+   * Returns the number of interned names. Every id is smaller than this number.
+   */
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,159 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The busy times of every attendee in a collection of events, sorted and merged per attendee.
+ * Building the index costs one pass over the events; afterwards a query only touches the intervals
+ * of the attendees it names. Indexes are read-only and safe to share between threads.
+ *
+ * <p>Times are in minutes: since the start of the day for an index of {@code Event}s, and since the
+ * epoch for an index of {@code DatedEvent}s.
+ */
+public final class AttendeeIndex implements BusyTimes {
+  // Merged busy intervals indexed by slot. Slots past the end of the array, and null entries, have
+  // no busy time.
+  private final long[][] busyBySlot;
+
+  // Maps attendee ids to slots for an index of some attendees. For an index of everyone it is null,
+  // and the slot of an attendee is its id in the global {@code AttendeeDictionary}.
+  private final AttendeeMask slots;
+
+  private AttendeeIndex(long[][] busyBySlot, AttendeeMask slots) {
+    this.busyBySlot = busyBySlot;
+    this.slots = slots;
+  }
+
+  /**
+   * Creates an index of every attendee in {@code events}.
+   */
+  public static AttendeeIndex of(Collection<Event> events) {
+    return of(events, null);
+  }
+
+  /**
+   * Creates an index of the attendees in {@code attendees}, or of everyone if it is null.
+   */
+  static AttendeeIndex of(Collection<Event> events, AttendeeMask attendees) {
+    Builder builder = new Builder(attendees);
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      builder.add(when.start(), when.end(), event.getAttendeeIds());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates an index of every attendee in {@code events}, which may span any number of days.
+   */
+  public static AttendeeIndex ofDatedEvents(Collection<DatedEvent> events) {
+    Builder builder = new Builder(null);
+    for (DatedEvent event : events) {
+      EpochRange when = event.getWhen();
+      builder.add(when.start(), when.end(), event.getAttendeeIds());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the times when {@code attendee} is busy, sorted by start time. Overlapping and
+   * touching events are merged into a single range.
+   */
+  public List<TimeRange> getBusyRanges(String attendee) {
+    long[] busy = busyIntervals(AttendeeDictionary.global().idOf(attendee));
+    return Collections.unmodifiableList(TimeRangeList.wrap(busy).toTimeRanges());
+  }
+
+  /**
+   * Returns the merged busy intervals of the attendee with the given id, packed as described in
+   * {@code Intervals}. The array is shared and must not be modified.
+   */
+  long[] busyIntervals(int attendeeId) {
+    int slot = slots == null ? attendeeId : slots.slotOf(attendeeId);
+    if (slot < 0 || slot >= busyBySlot.length || busyBySlot[slot] == null) {
+      return Intervals.EMPTY;
+    }
+    return busyBySlot[slot];
+  }
+
+  @Override
+  public long[] busyIntervals(int attendeeId, long from, long to) {
+    return Intervals.slice(busyIntervals(attendeeId), from, to);
+  }
+
+  /**
+   * Collects busy intervals per attendee and merges them once all events are added. An index of
+   * some attendees keeps one slot per attendee in the mask; an index of everyone starts small and
+   * grows to the largest id it sees.
+   */
+  private static final class Builder {
+    private final AttendeeMask attendees;
+    private long[][] starts;
+    private long[][] ends;
+    private int[] sizes;
+
+    Builder(AttendeeMask attendees) {
+      int numSlots = attendees != null ? attendees.size() : 16;
+      this.attendees = attendees;
+      this.starts = new long[numSlots][];
+      this.ends = new long[numSlots][];
+      this.sizes = new int[numSlots];
+    }
+
+    void add(long start, long end, int[] attendeeIds) {
+      if (start >= end) {
+        return;
+      }
+
+      for (int id : attendeeIds) {
+        int slot = attendees != null ? attendees.slotOf(id) : id;
+        if (slot < 0) {
+          continue;
+        }
+        if (slot >= sizes.length) {
+          int numSlots = Math.max(slot + 1, sizes.length * 2);
+          starts = Arrays.copyOf(starts, numSlots);
+          ends = Arrays.copyOf(ends, numSlots);
+          sizes = Arrays.copyOf(sizes, numSlots);
+        }
+        if (starts[slot] == null) {
+          starts[slot] = new long[4];
+          ends[slot] = new long[4];
+        } else if (sizes[slot] == starts[slot].length) {
+          starts[slot] = Arrays.copyOf(starts[slot], sizes[slot] * 2);
+          ends[slot] = Arrays.copyOf(ends[slot], sizes[slot] * 2);
+        }
+        starts[slot][sizes[slot]] = start;
+        ends[slot][sizes[slot]] = end;
+        sizes[slot]++;
+      }
+    }
+
+    AttendeeIndex build() {
+      long[][] busyBySlot = new long[sizes.length][];
+      for (int slot = 0; slot < sizes.length; slot++) {
+        if (starts[slot] != null) {
+          busyBySlot[slot] = Intervals.union(starts[slot], ends[slot], sizes[slot]);
+        }
+      }
+      return new AttendeeIndex(busyBySlot, attendees);
+    }
+  }
+}
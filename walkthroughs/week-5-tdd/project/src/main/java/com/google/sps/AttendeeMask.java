@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A fixed set of attendee ids, stored as a sorted array so that its size depends only on the
+ * attendees asked for, however many names the dictionary holds. Each id in the mask also has a
+ * dense slot in {@code [0, size())}, its position in the array, which callers can use to index
+ * per-attendee data without sizing it by the dictionary.
+ */
+final class AttendeeMask {
+  private final int[] ids;
+
+  private AttendeeMask(int[] ids) {
+    this.ids = ids;
+  }
+
+  /**
+   * Creates a mask of the given attendees. Names that {@code dictionary} does not know are left
+   * out, since no event can involve them.
+   */
+  static AttendeeMask of(Collection<String> attendees, AttendeeDictionary dictionary) {
+    int[] ids = new int[attendees.size()];
+    int size = 0;
+    for (String attendee : attendees) {
+      int id = dictionary.idOf(attendee);
+      if (id != AttendeeDictionary.UNKNOWN) {
+        ids[size++] = id;
+      }
+    }
+    Arrays.sort(ids, 0, size);
+
+    int distinct = 0;
+    for (int i = 0; i < size; i++) {
+      if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+        ids[distinct++] = ids[i];
+      }
+    }
+    return new AttendeeMask(Arrays.copyOf(ids, distinct));
+  }
+
+  /**
+   * Returns the number of ids in the mask.
+   */
+  int size() {
+    return ids.length;
+  }
+
+  /**
+   * Returns the slot of {@code id} in {@code [0, size())}, or -1 if it is not in the mask.
+   */
+  int slotOf(int id) {
+    int slot = Arrays.binarySearch(ids, id);
+    return slot >= 0 ? slot : -1;
+  }
+
+  /**
+   * Returns true if {@code id} is in the mask.
+   */
+  boolean contains(int id) {
+    return Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  /**
+   * Returns true if any of {@code ids} is in the mask.
+   */
+  boolean intersects(int[] ids) {
+    for (int id : ids) {
+      if (contains(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
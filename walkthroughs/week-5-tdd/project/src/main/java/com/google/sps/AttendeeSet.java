@@ -0,0 +1,88 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only set of attendee names backed by a sorted array without duplicates. The set is a view
+ * of the array, so creating one copies nothing, and {@code contains} is a binary search.
+ */
+final class AttendeeSet extends AbstractSet<String> {
+  private final String[] names;
+
+  /**
+   * Creates a view of {@code names}, which must be sorted and must not contain duplicates.
+   */
+  AttendeeSet(String[] names) {
+    this.names = names;
+  }
+
+  /**
+   * Returns the distinct names in {@code names}, sorted.
+   */
+  static String[] sortedNames(Collection<String> names) {
+    String[] sorted = names.toArray(new String[0]);
+    for (String name : sorted) {
+      if (name == null) {
+        throw new IllegalArgumentException("attendees cannot contain null");
+      }
+    }
+    Arrays.sort(sorted);
+
+    int size = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (size == 0 || !sorted[i].equals(sorted[size - 1])) {
+        sorted[size++] = sorted[i];
+      }
+    }
+    return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+  }
+
+  @Override
+  public boolean contains(Object name) {
+    return name instanceof String && Arrays.binarySearch(names, name) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return names.length;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < names.length;
+      }
+
+      @Override
+      public String next() {
+        if (next == names.length) {
+          throw new NoSuchElementException();
+        }
+        return names[next++];
+      }
+    };
+  }
+}
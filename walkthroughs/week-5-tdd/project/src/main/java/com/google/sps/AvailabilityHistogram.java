@@ -0,0 +1,131 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * How many of a group of attendees are free during each bucket of a day, where a bucket is a fixed
+ * number of minutes. An attendee only counts as free in a bucket if they are free for all of it.
+ * The last bucket is shorter if the day does not divide evenly.
+ *
+ * <p>The histogram is built in one pass over the attendees' merged busy intervals with a
+ * difference array: every interval adds one at its first bucket and removes one after its last,
+ * and a running sum turns the differences into counts.
+ */
+public final class AvailabilityHistogram {
+  private static final int MINUTES_PER_DAY = TimeRange.END_OF_DAY + 1;
+
+  private final int numAttendees;
+  private final int bucketMinutes;
+  private final int[] freeCounts;
+
+  private AvailabilityHistogram(int numAttendees, int bucketMinutes, int[] freeCounts) {
+    this.numAttendees = numAttendees;
+    this.bucketMinutes = bucketMinutes;
+    this.freeCounts = freeCounts;
+  }
+
+  /**
+   * Counts how many of {@code attendees} are free in each bucket of {@code bucketMinutes} minutes,
+   * reading their busy times from {@code source}.
+   */
+  public static AvailabilityHistogram of(
+      BusyTimes source, Collection<String> attendees, int bucketMinutes) {
+    if (bucketMinutes < 1 || bucketMinutes > MINUTES_PER_DAY) {
+      throw new IllegalArgumentException("bucketMinutes must be between 1 and " + MINUTES_PER_DAY);
+    }
+
+    Set<String> distinctAttendees = new HashSet<>(attendees);
+    if (distinctAttendees.contains(null)) {
+      throw new IllegalArgumentException("attendees cannot contain null");
+    }
+    int numBuckets = (MINUTES_PER_DAY + bucketMinutes - 1) / bucketMinutes;
+    int[] busyDifferences = new int[numBuckets + 1];
+    for (String attendee : distinctAttendees) {
+      long[] busy = source.busyIntervals(source.idOf(attendee), 0, MINUTES_PER_DAY);
+
+      // Two intervals of the same attendee can touch the same bucket, which must only count once.
+      int nextBucket = 0;
+      for (int i = 0; i < busy.length; i += 2) {
+        int first = Math.max(nextBucket, (int) (Math.max(busy[i], 0) / bucketMinutes));
+        int last = (int) ((Math.min(busy[i + 1], MINUTES_PER_DAY) - 1) / bucketMinutes);
+        if (first <= last) {
+          busyDifferences[first]++;
+          busyDifferences[last + 1]--;
+          nextBucket = last + 1;
+        }
+      }
+    }
+
+    int[] freeCounts = new int[numBuckets];
+    int busyCount = 0;
+    for (int bucket = 0; bucket < numBuckets; bucket++) {
+      busyCount += busyDifferences[bucket];
+      freeCounts[bucket] = distinctAttendees.size() - busyCount;
+    }
+    return new AvailabilityHistogram(distinctAttendees.size(), bucketMinutes, freeCounts);
+  }
+
+  /**
+   * Returns the number of distinct attendees in the group.
+   */
+  public int getAttendeeCount() {
+    return numAttendees;
+  }
+
+  /**
+   * Returns the length of a bucket in minutes.
+   */
+  public int getBucketMinutes() {
+    return bucketMinutes;
+  }
+
+  /**
+   * Returns the number of buckets in the day.
+   */
+  public int getBucketCount() {
+    return freeCounts.length;
+  }
+
+  /**
+   * Returns the number of attendees who are free for all of bucket {@code bucket}.
+   */
+  public int freeCount(int bucket) {
+    return freeCounts[bucket];
+  }
+
+  /**
+   * Returns the free counts run-length encoded as {@code [count, buckets]} pairs, in order. For
+   * example, {@code [[3, 32], [2, 4]]} means three attendees are free for the first 32 buckets and
+   * two for the next four.
+   */
+  public int[][] toRuns() {
+    int[][] runs = new int[freeCounts.length][];
+    int numRuns = 0;
+    for (int bucket = 0; bucket < freeCounts.length; bucket++) {
+      if (numRuns > 0 && runs[numRuns - 1][0] == freeCounts[bucket]) {
+        runs[numRuns - 1][1]++;
+      } else {
+        runs[numRuns++] = new int[] {freeCounts[bucket], 1};
+      }
+    }
+    return Arrays.copyOf(runs, numRuns);
+  }
+}
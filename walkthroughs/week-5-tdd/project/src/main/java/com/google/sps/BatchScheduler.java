@@ -0,0 +1,344 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Places several meetings on the same day so that none of them overlap, such as the interviews of
+ * an interview loop. Each meeting must also fit the free time of its own mandatory attendees;
+ * optional attendees are not considered.
+ *
+ * <p>The search is a backtracking search over the start times of the meetings. The start times
+ * each meeting could still take are kept as ranges, so placing a meeting removes the starts that
+ * would overlap it from every other meeting with one range subtraction (forward checking), and a
+ * dead end is found as soon as some meeting has nowhere left to go. The meeting with the fewest
+ * remaining start times is placed next. The start times of the first meeting are searched in
+ * parallel, and the search stops when its time budget runs out.
+ */
+public final class BatchScheduler {
+  /** The number of minutes between the start times tried within a free range. */
+  private final int stepMinutes;
+
+  /**
+   * The meeting times found for a batch, in the same order as the requests.
+   */
+  public static final class Schedule {
+    private final boolean found;
+    private final List<TimeRange> slots;
+    private final boolean timedOut;
+
+    private Schedule(boolean found, List<TimeRange> slots, boolean timedOut) {
+      this.found = found;
+      this.slots = Collections.unmodifiableList(slots);
+      this.timedOut = timedOut;
+    }
+
+    /**
+     * Returns true if a meeting time was found for every request.
+     */
+    public boolean isFound() {
+      return found;
+    }
+
+    /**
+     * Returns the meeting time of each request, in the same order as the requests, or an empty
+     * list if no schedule was found.
+     */
+    public List<TimeRange> getSlots() {
+      return slots;
+    }
+
+    /**
+     * Returns true if the time budget ran out before the search finished. A schedule can still
+     * have been found, but it may not be the first one in time order.
+     */
+    public boolean isTimedOut() {
+      return timedOut;
+    }
+  }
+
+  /**
+   * Creates a scheduler that tries start times every {@code stepMinutes} minutes within each free
+   * range, and at the start of each free range.
+   */
+  public BatchScheduler(int stepMinutes) {
+    if (stepMinutes <= 0) {
+      throw new IllegalArgumentException("stepMinutes must be positive");
+    }
+    this.stepMinutes = stepMinutes;
+  }
+
+  /**
+   * Same as {@code schedule(index, requests, timeBudget, pool)}, using the common pool.
+   */
+  public Schedule schedule(BusyTimes index, List<MeetingRequest> requests, Duration timeBudget) {
+    return schedule(index, requests, timeBudget, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Finds a start time for every request so that no two meetings overlap and every mandatory
+   * attendee of each meeting is free. Without a time limit, the schedule found is the first one in
+   * the order the search tries start times, which is earliest first. The source must not change
+   * while the search runs.
+   */
+  public Schedule schedule(BusyTimes index, List<MeetingRequest> requests, Duration timeBudget,
+      ForkJoinPool pool) {
+    long deadline = System.nanoTime() + timeBudget.toNanos();
+    int count = requests.size();
+    long[] durations = new long[count];
+    TimeRangeList[] domains = new TimeRangeList[count];
+    for (int i = 0; i < count; i++) {
+      MeetingRequest request = requests.get(i);
+      durations[i] = request.getDuration();
+      long[] free = FindMeetingQuery.getViableMeetingTimes(index, durations[i],
+          request.getAttendees(), TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1);
+
+      // A meeting fits in the free range [start, end) if it starts in [start, end - duration].
+      domains[i] = new TimeRangeList(free.length / 2);
+      for (int j = 0; j < free.length; j += 2) {
+        domains[i].add(free[j], free[j + 1] - durations[i] + 1);
+      }
+      if (domains[i].isEmpty()) {
+        return new Schedule(false, Collections.<TimeRange>emptyList(), false);
+      }
+    }
+    if (count == 0) {
+      return new Schedule(true, Collections.<TimeRange>emptyList(), false);
+    }
+
+    Search search = new Search(durations, deadline);
+    int first = mostConstrained(domains, new boolean[count]);
+    long[] firstStarts = candidates(domains[first]);
+    long[][] solutions = new long[firstStarts.length][];
+    pool.invoke(new Branches(search, domains, first, firstStarts, solutions, 0,
+        firstStarts.length));
+
+    int branch = search.bestBranch.get();
+    boolean timedOut = search.timedOut.get();
+    if (branch == Integer.MAX_VALUE) {
+      return new Schedule(false, Collections.<TimeRange>emptyList(), timedOut);
+    }
+    List<TimeRange> slots = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      long start = solutions[branch][i];
+      slots.add(TimeRange.fromStartDuration((int) start, (int) durations[i]));
+    }
+    return new Schedule(true, slots, timedOut);
+  }
+
+  /**
+   * The state shared by every branch of one search.
+   */
+  private static final class Search {
+    final long[] durations;
+    final long deadline;
+    // The lowest branch that found a schedule so far. Higher branches stop, since their schedule
+    // would not be used.
+    final AtomicInteger bestBranch = new AtomicInteger(Integer.MAX_VALUE);
+    final AtomicBoolean timedOut = new AtomicBoolean();
+
+    Search(long[] durations, long deadline) {
+      this.durations = durations;
+      this.deadline = deadline;
+    }
+
+    boolean shouldStop(int branch) {
+      if (branch > bestBranch.get()) {
+        return true;
+      }
+      if (System.nanoTime() - deadline >= 0) {
+        timedOut.set(true);
+        return true;
+      }
+      return false;
+    }
+
+    void found(int branch) {
+      int best = bestBranch.get();
+      while (branch < best && !bestBranch.compareAndSet(best, branch)) {
+        best = bestBranch.get();
+      }
+    }
+  }
+
+  /**
+   * Searches the branches {@code [from, to)}, which place meeting {@code first} at each of
+   * {@code firstStarts}, splitting the range in half until it is a single branch.
+   */
+  private final class Branches extends RecursiveAction {
+    private final Search search;
+    private final TimeRangeList[] domains;
+    private final int first;
+    private final long[] firstStarts;
+    private final long[][] solutions;
+    private final int from;
+    private final int to;
+
+    Branches(Search search, TimeRangeList[] domains, int first, long[] firstStarts,
+        long[][] solutions, int from, int to) {
+      this.search = search;
+      this.domains = domains;
+      this.first = first;
+      this.firstStarts = firstStarts;
+      this.solutions = solutions;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new Branches(search, domains, first, firstStarts, solutions, from, mid),
+            new Branches(search, domains, first, firstStarts, solutions, mid, to));
+        return;
+      }
+
+      int branch = from;
+      if (search.shouldStop(branch)) {
+        return;
+      }
+      long[] starts = new long[domains.length];
+      boolean[] placed = new boolean[domains.length];
+      TimeRangeList[] pruned = place(search.durations, domains, placed, first, firstStarts[branch]);
+      if (pruned == null) {
+        return;
+      }
+      starts[first] = firstStarts[branch];
+      placed[first] = true;
+      if (search(search, branch, pruned, starts, placed, 1)) {
+        solutions[branch] = starts;
+        search.found(branch);
+      }
+    }
+  }
+
+  /**
+   * Places the remaining meetings one at a time, backtracking when some meeting has no start time
+   * left. Returns true when every meeting is placed, with their start times in {@code starts}.
+   */
+  private boolean search(Search search, int branch, TimeRangeList[] domains, long[] starts,
+      boolean[] placed, int placedCount) {
+    if (placedCount == domains.length) {
+      return true;
+    }
+    if (search.shouldStop(branch)) {
+      return false;
+    }
+
+    int next = mostConstrained(domains, placed);
+    placed[next] = true;
+    for (long start : candidates(domains[next])) {
+      TimeRangeList[] pruned = place(search.durations, domains, placed, next, start);
+      if (pruned != null) {
+        starts[next] = start;
+        if (search(search, branch, pruned, starts, placed, placedCount + 1)) {
+          return true;
+        }
+      }
+      if (search.shouldStop(branch)) {
+        break;
+      }
+    }
+    placed[next] = false;
+    return false;
+  }
+
+  /**
+   * Returns the start times left for each meeting once {@code meeting} starts at {@code start}, or
+   * null if some meeting that is not placed yet would have none left. The domains of placed
+   * meetings are shared, not copied.
+   */
+  private static TimeRangeList[] place(long[] durations, TimeRangeList[] domains,
+      boolean[] placed, int meeting, long start) {
+    TimeRangeList[] pruned = Arrays.copyOf(domains, domains.length);
+    long end = start + durations[meeting];
+    for (int other = 0; other < domains.length; other++) {
+      if (other == meeting || placed[other]) {
+        continue;
+      }
+      // The other meeting overlaps [start, end) if it starts after start - duration and before end.
+      TimeRangeList blocked = new TimeRangeList(1);
+      blocked.add(start - durations[other] + 1, end);
+      pruned[other] = domains[other].subtract(blocked);
+      if (pruned[other].isEmpty()) {
+        return null;
+      }
+    }
+    return pruned;
+  }
+
+  /**
+   * Returns the meeting that is not placed yet with the fewest start times left, or the first of
+   * them if there is a tie.
+   */
+  private int mostConstrained(TimeRangeList[] domains, boolean[] placed) {
+    int best = -1;
+    long bestCount = Long.MAX_VALUE;
+    for (int i = 0; i < domains.length; i++) {
+      if (placed[i]) {
+        continue;
+      }
+      long count = 0;
+      for (int j = 0; j < domains[i].size(); j++) {
+        count += candidateCount(domains[i].start(j), domains[i].end(j));
+      }
+      if (count < bestCount) {
+        best = i;
+        bestCount = count;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Returns the start times to try for a meeting with the given domain, in increasing order: the
+   * start of each range, and then every multiple of the step within it.
+   */
+  private long[] candidates(TimeRangeList domain) {
+    long total = 0;
+    for (int i = 0; i < domain.size(); i++) {
+      total += candidateCount(domain.start(i), domain.end(i));
+    }
+
+    long[] candidates = new long[(int) total];
+    int size = 0;
+    for (int i = 0; i < domain.size(); i++) {
+      long start = domain.start(i);
+      candidates[size++] = start;
+      for (long next = (Math.floorDiv(start, stepMinutes) + 1) * stepMinutes;
+          next < domain.end(i); next += stepMinutes) {
+        candidates[size++] = next;
+      }
+    }
+    return candidates;
+  }
+
+  private long candidateCount(long start, long end) {
+    long firstAligned = Math.floorDiv(start, stepMinutes) + 1;
+    long lastAligned = Math.floorDiv(end - 1, stepMinutes);
+    return 1 + Math.max(0, lastAligned - firstAligned + 1);
+  }
+}
@@ -0,0 +1,69 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A source of busy times that the meeting queries read from, such as a read-only
+ * {@code AttendeeIndex} or a mutable {@code EventStore}. Attendees are identified by their id in
+ * the global {@code AttendeeDictionary}.
+ */
+public interface BusyTimes {
+
+  /**
+   * Returns the busy intervals of the attendee with the given id that overlap {@code [from, to)},
+   * packed into an array as {@code [start0, end0, start1, end1, ...]}. Ends are exclusive, and the
+   * intervals are sorted by start and neither overlap nor touch. Intervals are not clipped to the
+   * window. The array may be shared and must not be modified.
+   */
+  long[] busyIntervals(int attendeeId, long from, long to);
+
+  /**
+   * Returns the id of the attendee named {@code name}, or {@code AttendeeDictionary.UNKNOWN} if the
+   * attendee has no busy times here. By default the name is looked up in the global dictionary;
+   * sources that hold names the dictionary may not have seen yet intern them on demand.
+   */
+  default int idOf(String name) {
+    return AttendeeDictionary.global().idOf(name);
+  }
+
+  /**
+   * Returns the intervals of at least {@code minLength} within {@code [from, to)} when none of the
+   * attendees with the given ids are busy, packed like {@code busyIntervals}. By default the busy
+   * intervals of the attendees are merged and the gaps between them are returned; sources with a
+   * faster way to combine attendees can override this.
+   */
+  default long[] freeIntervals(int[] attendeeIds, long from, long to, long minLength) {
+    List<long[]> busyIntervals = new ArrayList<>(attendeeIds.length);
+    for (int id : attendeeIds) {
+      long[] busy = busyIntervals(id, from, to);
+      if (busy.length > 0) {
+        busyIntervals.add(busy);
+      }
+    }
+    return Intervals.gaps(Intervals.union(busyIntervals), from, to, minLength);
+  }
+
+  /**
+   * Returns a number that changes whenever the busy times change. Sources that never change
+   * always return zero.
+   */
+  default long getVersion() {
+    return 0;
+  }
+}
@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * An event that can happen on any day, with its time given as an {@code EpochRange}. It plays the
+ * same role as {@code Event} for searches that span more than one day. Events are considered
+ * read-only.
+ */
+public final class DatedEvent {
+  private final String title;
+  private final EpochRange when;
+
+  // The distinct attendees, sorted, laid out the same way as in {@code Event}.
+  private final String[] attendees;
+
+  // The attendees' ids in the global {@code AttendeeDictionary}, in ascending order.
+  private final transient int[] attendeeIds;
+
+  // The read-only view returned by {@code getAttendees}.
+  private final transient Set<String> attendeeView;
+
+  // The hash of the title, the time and the attendees.
+  private final transient int hash;
+
+  /**
+   * Creates a new event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param when The time when the event takes place. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   */
+  public DatedEvent(String title, EpochRange when, Collection<String> attendees) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    this.title = title;
+    this.when = when;
+    this.attendees = AttendeeSet.sortedNames(attendees);
+    this.attendeeView = new AttendeeSet(this.attendees);
+    this.attendeeIds = AttendeeDictionary.global().internSorted(Arrays.asList(this.attendees));
+    this.hash = 31 * (31 * title.hashCode() + when.hashCode()) + Arrays.hashCode(this.attendees);
+  }
+
+  /**
+   * Creates a dated copy of a single-day {@code event} that takes place on the day starting at
+   * minute {@code dayStart}.
+   */
+  public static DatedEvent onDay(long dayStart, Event event) {
+    return new DatedEvent(
+        event.getTitle(), EpochRange.onDay(dayStart, event.getWhen()), event.getAttendees());
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the {@code EpochRange} for when this event occurs.
+   */
+  public EpochRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public Set<String> getAttendees() {
+    return attendeeView;
+  }
+
+  /**
+   * Returns the ids of the attendees in the global {@code AttendeeDictionary}, in ascending order.
+   * The array is shared and must not be modified.
+   */
+  int[] getAttendeeIds() {
+    return attendeeIds;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof DatedEvent)) {
+      return false;
+    }
+    DatedEvent that = (DatedEvent) other;
+    return hash == that.hash && title.equals(that.title) && when.equals(that.when)
+        && Arrays.equals(attendees, that.attendees);
+  }
+}
@@ -14,9 +14,8 @@
 
 package com.google.sps;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -26,7 +25,21 @@ import java.util.Set;
 public final class Event {
   private final String title;
   private final TimeRange when;
-  private final Set<String> attendees = new HashSet<>();
+
+  // The distinct attendees, sorted. An array takes a fraction of the memory of a set, and the JSON
+  // form of the event is the same.
+  private final String[] attendees;
+
+  // The attendees' ids in the global {@code AttendeeDictionary}, in ascending order. These are
+  // derived from {@code attendees}, so they are left out of the JSON form of the event.
+  private final transient int[] attendeeIds;
+
+  // A read-only view of {@code attendees}, built once so that {@code getAttendees} does not
+  // allocate on every call.
+  private final transient Set<String> attendeeView;
+
+  // The hash of the title, the time and the attendees, computed once since events never change.
+  private final transient int hash;
 
   /**
    * Creates a new event.
@@ -50,7 +63,10 @@ public final class Event {
 
     this.title = title;
     this.when = when;
-    this.attendees.addAll(attendees);
+    this.attendees = AttendeeSet.sortedNames(attendees);
+    this.attendeeView = new AttendeeSet(this.attendees);
+    this.attendeeIds = AttendeeDictionary.global().internSorted(Arrays.asList(this.attendees));
+    this.hash = 31 * (31 * title.hashCode() + when.hashCode()) + Arrays.hashCode(this.attendees);
   }
 
   /**
@@ -71,16 +87,23 @@ public final class Event {
    * Returns a read-only set of required attendees for this event.
    */
   public Set<String> getAttendees() {
-    // Return the attendees as an unmodifiable set so that the caller can't change our
-    // internal data.
-    return Collections.unmodifiableSet(attendees);
+    // Return a read-only view of the attendees so that the caller can't change our internal data.
+    return attendeeView;
+  }
+
+  /**
+   * Returns the ids of the attendees in the global {@code AttendeeDictionary}, in ascending order.
+   * The array is shared and must not be modified.
+   */
+  int[] getAttendeeIds() {
+    return attendeeIds;
   }
 
   @Override
   public int hashCode() {
-    // For the hash code, just use the title. Most events "should" have different names and will
-    // mainly be used as a way to skip the costly {@code equals()} call.
-    return title.hashCode();
+    // Hash everything that {@code equals} compares, so that many events with the same title, such
+    // as a daily standup, still spread out in hash-based collections.
+    return hash;
   }
 
   @Override
@@ -89,8 +112,9 @@ public final class Event {
   }
 
   private static boolean equals(Event a, Event b) {
-    // {@code attendees} must be a set for equals to work as expected. According to the {@code Set}
-    // interface documentation, equals will check for set-equality across all set implementations.
-    return a.title.equals(b.title) && a.when.equals(b.when) && a.attendees.equals(b.attendees);
+    // The attendees are sorted and distinct, so equal sets of attendees have equal arrays. Checking
+    // the hashes first skips the comparison for almost every pair of different events.
+    return a.hash == b.hash && a.title.equals(b.title) && a.when.equals(b.when)
+        && Arrays.equals(a.attendees, b.attendees);
   }
 }
@@ -0,0 +1,260 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A mutable collection of events whose busy times are kept up to date as events are added and
+ * removed, so queries never rebuild anything from the raw events.
+ *
+ * <p>Every attendee has a coverage map from each time where the number of their overlapping events
+ * changes to the new number. Adding or removing an event costs O(log n) per attendee in the number
+ * n of the attendee's events, plus the number of the attendee's own boundaries inside the event,
+ * which is usually none. The merged busy intervals of an attendee are built from the map on the
+ * first read after a change and shared until the next one.
+ *
+ * <p>The store is safe to use from several threads. Each read sees every edit that finished before
+ * it, but a query that reads several attendees while the store changes may see an edit for some
+ * attendees and not for others.
+ */
+public final class EventStore implements BusyTimes {
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // How many times each event was added. Events and DatedEvents never equal each other, so both
+  // can share the map.
+  private final Map<Object, Integer> events = new HashMap<>();
+
+  // Indexed by attendee id in the global {@code AttendeeDictionary}. Ids past the end of the array,
+  // and null entries, have no busy time.
+  private Calendar[] calendars = new Calendar[0];
+
+  private long version = 0;
+
+  /**
+   * Creates an empty store.
+   */
+  public EventStore() {}
+
+  /**
+   * Creates a store containing {@code events}.
+   */
+  public EventStore(Collection<Event> events) {
+    for (Event event : events) {
+      addEvent(event);
+    }
+  }
+
+  /**
+   * Adds an event. The same event may be added more than once, in which case it must also be
+   * removed as many times.
+   */
+  public void addEvent(Event event) {
+    TimeRange when = event.getWhen();
+    add(event, when.start(), when.end(), event.getAttendeeIds());
+  }
+
+  /**
+   * Adds an event that may fall on any day.
+   */
+  public void addEvent(DatedEvent event) {
+    EpochRange when = event.getWhen();
+    add(event, when.start(), when.end(), event.getAttendeeIds());
+  }
+
+  /**
+   * Removes one copy of an event. Returns false, and leaves the store unchanged, if the event is
+   * not in the store.
+   */
+  public boolean removeEvent(Event event) {
+    TimeRange when = event.getWhen();
+    return remove(event, when.start(), when.end(), event.getAttendeeIds());
+  }
+
+  /**
+   * Removes one copy of an event that may fall on any day.
+   */
+  public boolean removeEvent(DatedEvent event) {
+    EpochRange when = event.getWhen();
+    return remove(event, when.start(), when.end(), event.getAttendeeIds());
+  }
+
+  /**
+   * Returns a number that changes every time an event is added or removed.
+   */
+  @Override
+  public long getVersion() {
+    lock.readLock().lock();
+    try {
+      return version;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the times when {@code attendee} is busy, sorted by start time. Overlapping and
+   * touching events are merged into a single range.
+   */
+  public List<TimeRange> getBusyRanges(String attendee) {
+    long[] busy = busyIntervals(
+        AttendeeDictionary.global().idOf(attendee), Long.MIN_VALUE, Long.MAX_VALUE);
+    return Collections.unmodifiableList(TimeRangeList.wrap(busy).toTimeRanges());
+  }
+
+  @Override
+  public long[] busyIntervals(int attendeeId, long from, long to) {
+    lock.readLock().lock();
+    try {
+      if (attendeeId < 0 || attendeeId >= calendars.length || calendars[attendeeId] == null) {
+        return Intervals.EMPTY;
+      }
+      return Intervals.slice(calendars[attendeeId].merged(), from, to);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void add(Object event, long start, long end, int[] attendeeIds) {
+    lock.writeLock().lock();
+    try {
+      events.merge(event, 1, Integer::sum);
+      version++;
+      if (start >= end) {
+        return;
+      }
+      for (int id : attendeeIds) {
+        if (id >= calendars.length) {
+          calendars = Arrays.copyOf(calendars, Math.max(id + 1, calendars.length * 2));
+        }
+        if (calendars[id] == null) {
+          calendars[id] = new Calendar();
+        }
+        calendars[id].cover(start, end, 1);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private boolean remove(Object event, long start, long end, int[] attendeeIds) {
+    lock.writeLock().lock();
+    try {
+      Integer count = events.get(event);
+      if (count == null) {
+        return false;
+      }
+      if (count == 1) {
+        events.remove(event);
+      } else {
+        events.put(event, count - 1);
+      }
+      version++;
+      if (start >= end) {
+        return true;
+      }
+      for (int id : attendeeIds) {
+        calendars[id].cover(start, end, -1);
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * The busy times of one attendee.
+   */
+  private static final class Calendar {
+    // Maps each time where the number of overlapping events changes to the number from that time
+    // on. Times before the first key are free, and no two consecutive keys have the same number.
+    private final NavigableMap<Long, Integer> coverage = new TreeMap<>();
+
+    // The merged busy intervals, or null if the coverage changed since they were last built.
+    private volatile long[] merged;
+
+    /**
+     * Adds {@code delta} to the number of overlapping events in {@code [start, end)}.
+     */
+    void cover(long start, long end, int delta) {
+      split(start);
+      split(end);
+      for (Map.Entry<Long, Integer> entry : coverage.subMap(start, end).entrySet()) {
+        entry.setValue(entry.getValue() + delta);
+      }
+      join(end);
+      join(start);
+      merged = null;
+    }
+
+    /**
+     * Returns the merged busy intervals. Callers must hold at least the read lock, so the coverage
+     * does not change while the intervals are built; threads that build them at the same time
+     * build equal arrays.
+     */
+    long[] merged() {
+      long[] result = merged;
+      if (result == null) {
+        result = build();
+        merged = result;
+      }
+      return result;
+    }
+
+    private long[] build() {
+      long[] result = new long[coverage.size()];
+      int size = 0;
+      boolean busy = false;
+      for (Map.Entry<Long, Integer> entry : coverage.entrySet()) {
+        boolean nowBusy = entry.getValue() > 0;
+        if (nowBusy != busy) {
+          result[size++] = entry.getKey();
+          busy = nowBusy;
+        }
+      }
+      return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    // Makes {@code time} a key, with the number of overlapping events that was in effect there.
+    private void split(long time) {
+      if (!coverage.containsKey(time)) {
+        Map.Entry<Long, Integer> before = coverage.lowerEntry(time);
+        coverage.put(time, before == null ? 0 : before.getValue());
+      }
+    }
+
+    // Removes {@code time} as a key if it no longer changes the number of overlapping events.
+    private void join(long time) {
+      Integer count = coverage.get(time);
+      if (count == null) {
+        return;
+      }
+      Map.Entry<Long, Integer> before = coverage.lowerEntry(time);
+      if (count == (before == null ? 0 : before.getValue())) {
+        coverage.remove(time);
+      }
+    }
+  }
+}
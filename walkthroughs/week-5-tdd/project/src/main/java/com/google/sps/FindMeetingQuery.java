@@ -15,11 +15,20 @@
 package com.google.sps;
 
 import java.util.Collection;
-import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class FindMeetingQuery {
 
@@ -35,213 +44,305 @@ public final class FindMeetingQuery {
     * - If one or more time slots exists so that both mandatory and optional attendees can attend, the function returns those time slots.
     * - Otherwise, the function returns the time slots that fit just the mandatory attendees.
     *
-    * The algorithm up to the optional coding challenge runs in O(n*m+p), where n is the number of events, m is the maximum number of attendees for any given event, 
-    * and p is the number of attendees in the request.
+    * The events are first indexed by attendee, which takes O(n*m+n*log(n)), where n is the number of events and m is the maximum number of attendees for any given event.
+    * Only the attendees in the request are indexed. Callers that run many queries against the same events should build an AttendeeIndex once and use query(index, request).
     */
     public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+        Set<String> requestedAttendees = new HashSet<String>(request.getAttendees());
+        requestedAttendees.addAll(request.getOptionalAttendees());
+
+        AttendeeIndex index = AttendeeIndex.of(events, AttendeeMask.of(requestedAttendees, AttendeeDictionary.global()));
+        return query(index, request);
+    }
+
+    /*
+    * Same as query(events, request), but attendees are also busy outside their working hours on the day that starts at the epoch minute dayStart.
+    * The working hours are merged into the busy times before the search, so times outside them are never considered rather than filtered out of the result.
+    */
+    public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request, long dayStart, Map<String, WorkingHours> workingHours) {
+        Set<String> requestedAttendees = new HashSet<String>(request.getAttendees());
+        requestedAttendees.addAll(request.getOptionalAttendees());
+
+        AttendeeIndex index = AttendeeIndex.of(events, AttendeeMask.of(requestedAttendees, AttendeeDictionary.global()));
+        return query(WorkingHoursBusyTimes.onDay(index, dayStart, workingHours), request);
+    }
+
+    /*
+    * Same as query(events, request), but reads the busy times of the attendees from an AttendeeIndex, an EventStore or any other source of busy times.
+    * The algorithm up to the optional coding challenge runs in O(b*log(b)+p), where b is the number of merged busy intervals of the mandatory attendees
+    * and p is the number of attendees in the request. It does not depend on the number of events in the calendar or on the length of the events.
+    */
+    public Collection<TimeRange> query(BusyTimes index, MeetingRequest request) {
         long duration = request.getDuration();
         Collection<String> mandatoryAttendees = request.getAttendees();
         Collection<String> optionalAttendees = request.getOptionalAttendees();
 
         // find all the viable meeting times for the mandatory attendees
-        Collection<TimeRange> mandatoryViableMeetingTimes = getViableMeetingTimes(events, duration, mandatoryAttendees);
+        long[] mandatoryViableMeetingTimes = getViableMeetingTimes(index, duration, mandatoryAttendees, TimeRange.START_OF_DAY, TimeRange.END_OF_DAY+1);
 
         // optional coding challenge
         // find the times within mandatoryViableMeetingTimes when the greatest number of optional attendees can attend
-        return optionalAttendees(mandatoryViableMeetingTimes, events, duration, optionalAttendees);
+        long[] meetingTimes = optionalAttendees(mandatoryViableMeetingTimes, index, duration, optionalAttendees);
+
+        // the meeting times only become TimeRange objects here, at the edge of the API
+        return TimeRangeList.wrap(meetingTimes).toTimeRanges();
     }
     
-    // returns a list the meeting times when all the attendees can attend.
-    private static Collection<TimeRange> getViableMeetingTimes(Collection<Event> events, long duration, Collection<String> attendees) {
-        // used in the function attending
-        Set<String> attendeesSet = new HashSet<String>();
-        for(String attendee : attendees) {
-            attendeesSet.add(attendee);
-        }
+    /*
+    * Returns the k best meeting times, best first. A meeting time is better if more optional attendees can attend it, and then if it starts earlier.
+    * Unlike query(events, request), meeting times that fewer optional attendees can attend are also returned when there are not enough better ones.
+    * Each range when the mandatory attendees are free offers the times within it when the most optional attendees can attend.
+    * The ranges are scanned in time order and the k best times so far are kept in a heap. A later range only needs to be scanned while it could
+    * still beat the worst of them, so the search stops early once k times that every optional attendee can attend have been found.
+    */
+    public List<TimeRange> query(Collection<Event> events, MeetingRequest request, int k) {
+        Set<String> requestedAttendees = new HashSet<String>(request.getAttendees());
+        requestedAttendees.addAll(request.getOptionalAttendees());
 
-        // all of the minutes when meetings can be held will be marked true
-        boolean[] viableTimes = new boolean[TimeRange.END_OF_DAY+1];
-        for(int i=0;i<viableTimes.length;i++) {
-            viableTimes[i] = true;
-        }
+        AttendeeIndex index = AttendeeIndex.of(events, AttendeeMask.of(requestedAttendees, AttendeeDictionary.global()));
+        return query(index, request, k);
+    }
 
-        for(Event event : events) {
-            Collection<String> eventAttendees = event.getAttendees();
-            TimeRange when = event.getWhen();
-            int eventStart = when.start();
-            int eventEnd = when.end();
-
-            // check if any of the attendees are attending the event
-            if(attending(attendeesSet, eventAttendees)) {
-                // mark all of the minutes from eventStart to eventEnd as false
-                for(int i=eventStart;i<eventEnd;i++) {
-                    viableTimes[i] = false;
-                }
-            }
-        }
-        
-        /* 
-         * Run a linear search over the viable start times.
-         * For each potential start time, find the largest contiguous viable time range beginning at that start time.
-         * If the time range lasts longer than the required duration, add it to the output.
-         */
-        ArrayList<TimeRange> viableMeetingTimes = new ArrayList<TimeRange>();
-        int start = 0;
-        int currentRun = 0;
-        for(int min=0;min<=TimeRange.END_OF_DAY;min++) {
-            if(viableTimes[min]) {
-                currentRun++;
-            }
-            else {
-                if(currentRun >= duration) {
-                    viableMeetingTimes.add(TimeRange.fromStartDuration(start, currentRun));
-                }
-                start = min+1;
-                currentRun = 0;
-            }
+    /*
+    * Same as query(events, request, k), but reads the busy times of the attendees from the given source.
+    */
+    public List<TimeRange> query(BusyTimes index, MeetingRequest request, int k) {
+        if(k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
         }
-        if(currentRun >= duration) {
-            viableMeetingTimes.add(TimeRange.fromStartDuration(start, currentRun));
+        long duration = request.getDuration();
+
+        long[] mandatoryViableMeetingTimes = getViableMeetingTimes(index, duration, request.getAttendees(), TimeRange.START_OF_DAY, TimeRange.END_OF_DAY+1);
+        if(mandatoryViableMeetingTimes.length == 0) {
+            return new ArrayList<TimeRange>();
         }
+        long from = mandatoryViableMeetingTimes[0];
+        long to = mandatoryViableMeetingTimes[mandatoryViableMeetingTimes.length-1];
+        long[] meetingTimes = optionalAttendeeSolver(index, duration, request.getOptionalAttendees(), from, to)
+                .best(mandatoryViableMeetingTimes, k);
 
-        return viableMeetingTimes;
+        return TimeRangeList.wrap(meetingTimes).toTimeRanges();
     }
 
-    // returns true if any of the attendees in attendeesSet are in eventAttendees
-    private static boolean attending(Collection<String> attendeesSet, Collection<String> eventAttendees) {
-        for(String eventAttendee : eventAttendees) {
-            if(attendeesSet.contains(eventAttendee)) {
-                return true;
-            }
+    /*
+    * Returns the same meeting times as query(events, request), each paired with the resources in the given collection that are free for all of it
+    * and that fit every mandatory and optional attendee. Each resource is paired with the parts of the meeting times when it is free, parts shorter
+    * than the duration are dropped, and resources that are free for the same part share a slot. Resources are booked like attendees, so their events are indexed together with the attendees' events.
+    */
+    public List<ResourceSlot> query(Collection<Event> events, MeetingRequest request, Collection<Resource> resources) {
+        Set<String> requestedAttendees = new HashSet<String>(request.getAttendees());
+        requestedAttendees.addAll(request.getOptionalAttendees());
+        for(Resource resource : resources) {
+            requestedAttendees.add(resource.getName());
         }
-        return false;
+
+        AttendeeIndex index = AttendeeIndex.of(events, AttendeeMask.of(requestedAttendees, AttendeeDictionary.global()));
+        return query(index, request, resources);
     }
 
-    // finds the time slot(s) that allow all the mandatory attendees and the greatest possible number of optional attendees to attend
-    private static Collection<TimeRange> optionalAttendees(Collection<TimeRange> mandatoryViableMeetingTimes, Collection<Event> events, long duration, Collection<String> optionalAttendees) {
-        // for every timeRange in mandatoryViableMeetingTimes, eventOverlap contains a corresponding arraylist of all the events that optional attendees are attending and that overlap with the meeting time
-        HashMap<TimeRange, ArrayList<Event>> eventOverlap = new HashMap<TimeRange, ArrayList<Event>>();
-        for(TimeRange timeRange : mandatoryViableMeetingTimes) {
-            eventOverlap.put(timeRange, new ArrayList<Event>());
-        }
+    /*
+    * Same as query(events, request, resources), but reads the busy times of the attendees and the resources from the given source.
+    * The meeting times of the attendees are found once, and then each resource that is large enough is checked against all of them in a single
+    * merge of its busy intervals, so the search costs O(q+r*t+b), where q is the cost of query(index, request), r is the number of resources,
+    * t is the number of meeting times and b is the number of busy intervals of the resources within the meeting times.
+    */
+    public List<ResourceSlot> query(BusyTimes index, MeetingRequest request, Collection<Resource> resources) {
+        long duration = request.getDuration();
 
-        for(Event event : events) {
-            // check if any of the optional attendees are attending the event
-            if(attending(optionalAttendees, event.getAttendees())) {
-                TimeRange eventTimeRange = event.getWhen();
+        long[] mandatoryViableMeetingTimes = getViableMeetingTimes(index, duration, request.getAttendees(), TimeRange.START_OF_DAY, TimeRange.END_OF_DAY+1);
+        long[] meetingTimes = optionalAttendees(mandatoryViableMeetingTimes, index, duration, request.getOptionalAttendees());
+        int headcount = request.getAttendees().size() + request.getOptionalAttendees().size();
 
-                // if the event overlaps with any of the time ranges in mandatoryViableMeetingTimes, add the event to the meeting time's arraylist in eventOverlap
-                for(TimeRange meetingTimeRange : mandatoryViableMeetingTimes) {
-                    if(eventTimeRange.overlaps(meetingTimeRange)) {
-                        eventOverlap.get(meetingTimeRange).add(event);
-                    }
-                }
+        return resourceSlots(index, meetingTimes, duration, resources, headcount);
+    }
+
+    /*
+    * Same as stream(index, request), indexing the requested attendees' events first.
+    */
+    public Stream<TimeRange> stream(Collection<Event> events, MeetingRequest request) {
+        Set<String> requestedAttendees = new HashSet<String>(request.getAttendees());
+        requestedAttendees.addAll(request.getOptionalAttendees());
+
+        AttendeeIndex index = AttendeeIndex.of(events, AttendeeMask.of(requestedAttendees, AttendeeDictionary.global()));
+        return stream(index, request);
+    }
+
+    /*
+    * Returns the same meeting times as query(index, request) as a lazy stream in time order. The free time of the mandatory attendees is found by
+    * merging their busy times one interval at a time, and each meeting time is computed only when the stream asks for it, so a short-circuiting
+    * operation such as findFirst() or limit(n) stops the search early. When there are optional attendees, the search has to look at every free
+    * range of the mandatory attendees before the first meeting time is known, unless it finds a range that every optional attendee can attend.
+    * The source must not change while the stream is in use.
+    */
+    public Stream<TimeRange> stream(BusyTimes index, MeetingRequest request) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(index, request),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /*
+    * Same as stream(index, request), but as an iterator.
+    */
+    public Iterator<TimeRange> iterator(BusyTimes index, MeetingRequest request) {
+        long duration = request.getDuration();
+        long from = TimeRange.START_OF_DAY;
+        long to = TimeRange.END_OF_DAY+1;
+
+        List<long[]> busyIntervals = new ArrayList<long[]>();
+        for(String attendee : request.getAttendees()) {
+            long[] busy = index.busyIntervals(index.idOf(attendee), from, to);
+            if(busy.length > 0) {
+                busyIntervals.add(busy);
             }
         }
+        Iterator<long[]> mandatoryViableMeetingTimes = Intervals.gapIterator(busyIntervals, from, to, duration);
 
-        ArrayList<TimeRange> maxOptionalViableMeetingTimes = new ArrayList<TimeRange>();
-        int maxOptionalAttendees = 0;
-        for(TimeRange timeRange : mandatoryViableMeetingTimes) {
-            // get the maximum number of optional attendees that are available during timeRange
-            // maxAttendanceTimeRanges will contain all the subsets of timeRange when the maximum number of optional attendees can attend
-            ArrayList<TimeRange> maxAttendanceTimeRanges = new ArrayList<TimeRange>();
-            int maxAttendance = getMaxAttendance(timeRange, eventOverlap.get(timeRange), maxAttendanceTimeRanges, optionalAttendees, (int) duration);
-            if(maxAttendance > maxOptionalAttendees) {
-                maxOptionalViableMeetingTimes = maxAttendanceTimeRanges;
-                maxOptionalAttendees = maxAttendance;
+        Collection<String> optionalAttendees = request.getOptionalAttendees();
+        Iterator<long[]> meetingTimes = optionalAttendees.isEmpty()
+                ? mandatoryViableMeetingTimes
+                : optionalAttendeeSolver(index, duration, optionalAttendees, from, to).iterate(mandatoryViableMeetingTimes);
+
+        return new Iterator<TimeRange>() {
+            @Override
+            public boolean hasNext() {
+                return meetingTimes.hasNext();
             }
-            else if(maxAttendance == maxOptionalAttendees) {
-                maxOptionalViableMeetingTimes.addAll(maxAttendanceTimeRanges);
+
+            @Override
+            public TimeRange next() {
+                long[] meetingTime = meetingTimes.next();
+                return TimeRange.fromStartEnd((int) meetingTime[0], (int) meetingTime[1], false);
             }
-        }
+        };
+    }
 
-        // no times when any optional attendees can attend
-        if(maxOptionalAttendees == 0) {
-            return mandatoryViableMeetingTimes;
-        }
-        else {
-            return maxOptionalViableMeetingTimes;
-        }
+    /*
+    * Answers many meeting requests against the same events. The events are indexed once for every attendee, and the requests are then
+    * spread across the common ForkJoinPool. The index is read-only, so the requests run without any locking.
+    * The i-th element of the returned list is the result of query(events, requests.get(i)).
+    */
+    public List<Collection<TimeRange>> queryAll(Collection<Event> events, List<MeetingRequest> requests) {
+        return queryAll(AttendeeIndex.of(events), requests, ForkJoinPool.commonPool());
     }
 
-    // returns the maximum number of optional attendees that are free during a subset of timeRange longer than the required duration.
-    // maxAttendanceTimeRanges is updated with all the subsets of timeRange where the maximal number of optional attendees can attend.
-    @SuppressWarnings("unchecked")
-    private static int getMaxAttendance(TimeRange timeRange, ArrayList<Event> overlap, ArrayList<TimeRange> maxAttendanceTimeRanges, Collection<String> optionalAttendees, int meetingDuration) {
-        int start = timeRange.start();
-        int end = timeRange.end();
-        int duration = timeRange.duration();
-        Set<String>[] attendeesEveryMinute = new HashSet[duration];
-        for(int i=0;i<duration;i++) {
-            attendeesEveryMinute[i] = new HashSet<String>();
-        }
+    /*
+    * Same as queryAll(events, requests), but reads the busy times from the given source and runs the requests in the given pool.
+    * The source must not change while the requests run.
+    */
+    public List<Collection<TimeRange>> queryAll(BusyTimes index, List<MeetingRequest> requests, ForkJoinPool pool) {
+        MeetingRequest[] batch = requests.toArray(new MeetingRequest[0]);
+        // each task only sets the results of its own requests, and invoke() returns once every task has finished
+        List<Collection<TimeRange>> results = new ArrayList<>(Collections.<Collection<TimeRange>>nCopies(batch.length, null));
+
+        // split the batch into a few chunks per worker so that workers that finish early can steal the remaining chunks
+        int chunkSize = Math.max(1, batch.length / (pool.getParallelism() * 8));
+        pool.invoke(new BatchQuery(index, batch, results, 0, batch.length, chunkSize));
+        return results;
+    }
 
-        for(Event event : overlap) {
-            Set<String> attendees = event.getAttendees();
+    // answers the requests in [from, to) of a batch, splitting the range in half until it is at most chunkSize long.
+    private final class BatchQuery extends RecursiveAction {
+        private final BusyTimes index;
+        private final MeetingRequest[] requests;
+        private final List<Collection<TimeRange>> results;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
 
-            TimeRange eventTimeRange = event.getWhen();
-            int eventStart = eventTimeRange.start();
-            int eventEnd = eventTimeRange.end();
-            int startInInterval = Math.max(start, eventStart);
-            int endInInterval = Math.min(end, eventEnd);
+        BatchQuery(BusyTimes index, MeetingRequest[] requests, List<Collection<TimeRange>> results, int from, int to, int chunkSize) {
+            this.index = index;
+            this.requests = requests;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
 
-            // for every minute within eventTimeRange (that's also within timeRange), add to its corresponding HashSet the optional attendees that are attending the event
-            for(int min=startInInterval; min<endInInterval; min++) {
-                for(String attendee : attendees) {
-                    if(optionalAttendees.contains(attendee))
-                        attendeesEveryMinute[min-start].add(attendee);
+        @Override
+        protected void compute() {
+            if(to - from <= chunkSize) {
+                for(int i=from;i<to;i++) {
+                    results.set(i, query(index, requests[i]));
                 }
+                return;
             }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchQuery(index, requests, results, from, mid, chunkSize),
+                    new BatchQuery(index, requests, results, mid, to, chunkSize));
         }
-        
-        // find the maximum number of optional attendees that can attend, beginning with the case where no one is unavailable
-        for(int numUnavailable=0; numUnavailable<optionalAttendees.size(); numUnavailable++) {
-            // test every potential start time
-            for(int startMin=start; startMin<=end-meetingDuration; startMin++) {
-                Set<String> unavailable = new HashSet<String>();
-
-                // see if you can have a meeting of the smallest possible duration beginning at startMin
-                for(int min=startMin; min<startMin+meetingDuration; min++) {
-                    for(String attendee : attendeesEveryMinute[min-start]) {
-                        unavailable.add(attendee);
-                    }
-                }
+    }
 
-                // a meeting of the smallest possible duration is possible
-                if(unavailable.size() <= numUnavailable) {
-                    int checkNextMin;
+    // returns the meeting times within [from, to) when all the attendees can attend, packed as start/end pairs as described in Intervals.
+    static long[] getViableMeetingTimes(BusyTimes index, long duration, Collection<String> attendees, long from, long to) {
+        // every gap in the combined busy time of the attendees that lasts at least as long as the required duration is a viable meeting time
+        int[] attendeeIds = new int[attendees.size()];
+        int i = 0;
+        for(String attendee : attendees) {
+            attendeeIds[i++] = index.idOf(attendee);
+        }
+        return index.freeIntervals(attendeeIds, from, to, duration);
+    }
 
-                    for(checkNextMin=startMin+meetingDuration; checkNextMin<end; checkNextMin++) {
-                        // check if you can enlarge the duration of the meeting
-                        if(reachedLimit(attendeesEveryMinute[checkNextMin-start], unavailable, numUnavailable)) {
-                            break;
-                        }
-                    }
+    // pairs the meeting times with the resources that fit headcount people and are free for at least duration minutes within them.
+    // slots are sorted by start and then by end, and the resources of a slot keep the order of the given collection.
+    static List<ResourceSlot> resourceSlots(BusyTimes index, long[] meetingTimes, long duration, Collection<Resource> resources, int headcount) {
+        if(meetingTimes.length == 0) {
+            return new ArrayList<ResourceSlot>();
+        }
+        TimeRangeList meetingRanges = TimeRangeList.wrap(meetingTimes);
+        long from = meetingTimes[0];
+        long to = meetingTimes[meetingTimes.length-1];
 
-                    // add to maxAttendanceTimeRanges the time range of the meeting of the largest possible duration beginning at startMin
-                    maxAttendanceTimeRanges.add(TimeRange.fromStartEnd(startMin, checkNextMin, false));
-                    startMin = checkNextMin-1;
-                }
+        // resources that are free for the same time share a slot
+        TreeMap<TimeRange, List<Resource>> slots = new TreeMap<TimeRange, List<Resource>>(TimeRange.ORDER_BY_START.thenComparing(TimeRange.ORDER_BY_END));
+        for(Resource resource : resources) {
+            if(resource.getCapacity() < headcount) {
+                continue;
+            }
+
+            long[] busy = index.busyIntervals(index.idOf(resource.getName()), from, to);
+            TimeRangeList free = meetingRanges;
+            if(busy.length > 0) {
+                free = meetingRanges.subtract(TimeRangeList.wrap(busy));
+                free.removeShorterThan(duration);
             }
-            
-            // found a time range when only numUnavailable people are unavailable
-            if(maxAttendanceTimeRanges.size() > 0) {
-                return optionalAttendees.size()-numUnavailable;
+            for(int i = 0; i < free.size(); i++) {
+                TimeRange when = TimeRange.fromStartEnd((int) free.start(i), (int) free.end(i), false);
+                slots.computeIfAbsent(when, key -> new ArrayList<Resource>()).add(resource);
             }
         }
 
-        // there is no time range of the necessary duration that any attendee can attend
-        return 0;
+        List<ResourceSlot> resourceSlots = new ArrayList<ResourceSlot>(slots.size());
+        for(Map.Entry<TimeRange, List<Resource>> slot : slots.entrySet()) {
+            resourceSlots.add(new ResourceSlot(slot.getKey(), slot.getValue()));
+        }
+        return resourceSlots;
     }
-    
-    // checks if you can add the people in attendees to unavailable without exceeding the maximum size
-    private static boolean reachedLimit(Set<String> attendees, Set<String> unavailable, int numUnavailable) {
-        for(String attendee : attendees) {
-            unavailable.add(attendee);
-            if(unavailable.size() > numUnavailable) {
-                return true;
+
+    // finds the time slot(s) that allow all the mandatory attendees and the greatest possible number of optional attendees to attend.
+    // both the input and the output are packed as start/end pairs as described in Intervals.
+    static long[] optionalAttendees(long[] mandatoryViableMeetingTimes, BusyTimes index, long duration, Collection<String> optionalAttendees) {
+        if(mandatoryViableMeetingTimes.length == 0) {
+            return mandatoryViableMeetingTimes;
+        }
+        // only the parts of the busy intervals that overlap the mandatory meeting times matter
+        long from = mandatoryViableMeetingTimes[0];
+        long to = mandatoryViableMeetingTimes[mandatoryViableMeetingTimes.length-1];
+        return optionalAttendeeSolver(index, duration, optionalAttendees, from, to).solve(mandatoryViableMeetingTimes);
+    }
+
+    // creates a solver holding the busy intervals of the optional attendees, clipped to [from, to).
+    private static OptionalAttendeeSolver optionalAttendeeSolver(BusyTimes index, long duration, Collection<String> optionalAttendees, long from, long to) {
+        // give every optional attendee an index so that the solver can keep a busy counter for them
+        // optional attendees without any events are always free, but they still count towards the total
+        OptionalAttendeeSolver solver = new OptionalAttendeeSolver(optionalAttendees.size(), duration);
+        int owner = 0;
+        for(String attendee : optionalAttendees) {
+            long[] busy = index.busyIntervals(index.idOf(attendee), from, to);
+            for(int i=0;i<busy.length;i+=2) {
+                solver.addBusy(owner, Math.max(busy[i], from), Math.min(busy[i+1], to));
             }
+            owner++;
         }
-        return false;
+        return solver;
     }
-}
\ No newline at end of file
+}
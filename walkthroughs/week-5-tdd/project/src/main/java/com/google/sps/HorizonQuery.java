@@ -0,0 +1,111 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds meeting times over a window of any length, such as the next four weeks, in a single pass.
+ * The rules are the same as in {@code FindMeetingQuery}, but times are {@code EpochRange}s and the
+ * busy times come from an index of {@code DatedEvent}s. Free time is not split at midnight.
+ */
+public final class HorizonQuery {
+
+  /**
+   * One page of meeting times, in order of their start time.
+   */
+  public static final class Page {
+    private final List<EpochRange> ranges;
+    private final long nextPageStart;
+
+    private Page(List<EpochRange> ranges, long nextPageStart) {
+      this.ranges = Collections.unmodifiableList(ranges);
+      this.nextPageStart = nextPageStart;
+    }
+
+    /**
+     * Returns the meeting times on this page.
+     */
+    public List<EpochRange> getRanges() {
+      return ranges;
+    }
+
+    /**
+     * Returns true if there are more meeting times after this page.
+     */
+    public boolean hasNextPage() {
+      return nextPageStart != Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the {@code pageStart} to pass to {@code query} to get the next page, or
+     * {@code Long.MAX_VALUE} if this is the last page.
+     */
+    public long getNextPageStart() {
+      return nextPageStart;
+    }
+  }
+
+  /**
+   * Returns every meeting time within {@code window}, indexing {@code events} first. Callers that
+   * run several queries against the same events should build an {@code AttendeeIndex} once with
+   * {@code AttendeeIndex.ofDatedEvents} instead.
+   */
+  public List<EpochRange> query(
+      Collection<DatedEvent> events, MeetingRequest request, EpochRange window) {
+    return query(AttendeeIndex.ofDatedEvents(events), request, window);
+  }
+
+  /**
+   * Returns every meeting time within {@code window}, in order of their start time. The busy times
+   * are read from {@code index}, which can be an {@code AttendeeIndex} or an {@code EventStore}.
+   */
+  public List<EpochRange> query(BusyTimes index, MeetingRequest request, EpochRange window) {
+    return query(index, request, window, window.start(), Integer.MAX_VALUE).getRanges();
+  }
+
+  /**
+   * Returns at most {@code pageSize} meeting times within {@code window} that start at or after
+   * {@code pageStart}. The meeting times are always computed over the whole window, so paging
+   * through the results returns the same ranges as a single call to {@code query}.
+   */
+  public Page query(BusyTimes index, MeetingRequest request, EpochRange window,
+      long pageStart, int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("pageSize must be positive");
+    }
+
+    long duration = request.getDuration();
+    long[] mandatory = FindMeetingQuery.getViableMeetingTimes(
+        index, duration, request.getAttendees(), window.start(), window.end());
+    long[] meetingTimes = FindMeetingQuery.optionalAttendees(
+        mandatory, index, duration, request.getOptionalAttendees());
+
+    List<EpochRange> ranges = new ArrayList<>();
+    for (int i = 0; i < meetingTimes.length; i += 2) {
+      if (meetingTimes[i] < pageStart) {
+        continue;
+      }
+      if (ranges.size() == pageSize) {
+        return new Page(ranges, meetingTimes[i]);
+      }
+      ranges.add(EpochRange.fromStartEnd(meetingTimes[i], meetingTimes[i + 1], false));
+    }
+    return new Page(ranges, Long.MAX_VALUE);
+  }
+}
@@ -0,0 +1,214 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Helpers for interval lists packed into a {@code long[]} as {@code [start0, end0, start1, end1,
+ * ...]}. Ends are exclusive. A merged list is sorted by start, and none of its intervals overlap or
+ * touch.
+ */
+final class Intervals {
+  static final long[] EMPTY = new long[0];
+
+  private Intervals() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the union of the first {@code count} intervals described by {@code starts} and
+   * {@code ends} as a merged list. Both arrays are sorted in place.
+   *
+   * <p>The union only depends on how many intervals cover each point, so the starts and ends can
+   * be sorted independently: a merged interval opens when the count leaves zero and closes when it
+   * returns to zero. Starts are handled before ends at the same time, so touching intervals merge.
+   */
+  static long[] union(long[] starts, long[] ends, int count) {
+    Arrays.sort(starts, 0, count);
+    Arrays.sort(ends, 0, count);
+
+    long[] merged = new long[2 * count];
+    int size = 0;
+    int depth = 0;
+    int nextEnd = 0;
+    for (int i = 0; i < count; i++) {
+      while (ends[nextEnd] < starts[i]) {
+        if (--depth == 0) {
+          merged[size++] = ends[nextEnd];
+        }
+        nextEnd++;
+      }
+      if (depth++ == 0) {
+        merged[size++] = starts[i];
+      }
+    }
+    if (count > 0) {
+      merged[size++] = ends[count - 1];
+    }
+    return size == merged.length ? merged : Arrays.copyOf(merged, size);
+  }
+
+  /**
+   * Returns the union of several merged lists as one merged list.
+   */
+  static long[] union(List<long[]> lists) {
+    if (lists.isEmpty()) {
+      return EMPTY;
+    }
+    if (lists.size() == 1) {
+      return lists.get(0);
+    }
+
+    int count = 0;
+    for (long[] list : lists) {
+      count += list.length / 2;
+    }
+    long[] starts = new long[count];
+    long[] ends = new long[count];
+    int i = 0;
+    for (long[] list : lists) {
+      for (int j = 0; j < list.length; j += 2) {
+        starts[i] = list[j];
+        ends[i] = list[j + 1];
+        i++;
+      }
+    }
+    return union(starts, ends, count);
+  }
+
+  /**
+   * Returns the intervals of the merged list {@code merged} that overlap {@code [from, to)}. The
+   * list itself is returned when every interval overlaps.
+   */
+  static long[] slice(long[] merged, long from, long to) {
+    // Both the starts and the ends of a merged list are sorted, so binary search for the first
+    // interval ending after {@code from} and the first interval starting at or after {@code to}.
+    int low = 0;
+    int high = merged.length / 2;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (merged[2 * mid + 1] <= from) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    int first = low;
+
+    high = merged.length / 2;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (merged[2 * mid] < to) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    int last = low;
+
+    if (first == 0 && last == merged.length / 2) {
+      return merged;
+    }
+    return Arrays.copyOfRange(merged, 2 * first, 2 * last);
+  }
+
+  /**
+   * Returns the gaps of at least {@code minLength} between the intervals of the merged list
+   * {@code busy}, within {@code [from, to)}.
+   */
+  static long[] gaps(long[] busy, long from, long to, long minLength) {
+    long[] free = new long[busy.length + 2];
+    int size = 0;
+    long freeStart = from;
+    for (int i = 0; i < busy.length && busy[i] < to; i += 2) {
+      if (busy[i] > freeStart && busy[i] - freeStart >= minLength) {
+        free[size++] = freeStart;
+        free[size++] = busy[i];
+      }
+      freeStart = Math.max(freeStart, busy[i + 1]);
+    }
+    if (to > freeStart && to - freeStart >= minLength) {
+      free[size++] = freeStart;
+      free[size++] = to;
+    }
+    return Arrays.copyOf(free, size);
+  }
+
+  /**
+   * Returns the same gaps as {@code gaps(union(lists), from, to, minLength)}, as
+   * {@code [start, end]} pairs, but finds each gap only when it is asked for. The lists are merged
+   * through a heap of their next intervals, so finding the next gap costs O(log p) per busy
+   * interval passed, where p is the number of lists.
+   */
+  static Iterator<long[]> gapIterator(List<long[]> lists, long from, long to, long minLength) {
+    return new Iterator<long[]>() {
+      // Each cursor is {list index, position of its next interval}, ordered by its next start.
+      private final PriorityQueue<int[]> cursors = new PriorityQueue<>(Math.max(1, lists.size()),
+          (a, b) -> Long.compare(lists.get(a[0])[a[1]], lists.get(b[0])[b[1]]));
+      private long freeStart = from;
+      private long[] next;
+      private boolean done;
+
+      {
+        for (int i = 0; i < lists.size(); i++) {
+          if (lists.get(i).length > 0) {
+            cursors.add(new int[] {i, 0});
+          }
+        }
+      }
+
+      @Override
+      public boolean hasNext() {
+        while (next == null && !done) {
+          int[] cursor = cursors.poll();
+          long[] list = cursor == null ? null : lists.get(cursor[0]);
+          if (cursor == null || list[cursor[1]] >= to) {
+            done = true;
+            if (to > freeStart && to - freeStart >= minLength) {
+              next = new long[] {freeStart, to};
+            }
+            break;
+          }
+
+          long busyStart = list[cursor[1]];
+          if (busyStart > freeStart && busyStart - freeStart >= minLength) {
+            next = new long[] {freeStart, busyStart};
+          }
+          freeStart = Math.max(freeStart, list[cursor[1] + 1]);
+          cursor[1] += 2;
+          if (cursor[1] < list.length) {
+            cursors.add(cursor);
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public long[] next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        long[] gap = next;
+        next = null;
+        return gap;
+      }
+    };
+  }
+}
@@ -0,0 +1,400 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Events stored in a compact binary file that is mapped into memory instead of being read onto the
+ * heap. Opening a file only hashes its attendee table; names are interned in the global
+ * {@code AttendeeDictionary} when a query asks for them, the busy times are read straight from the
+ * mapping, and {@code Event} objects are only created when {@code getEvents()} is read.
+ *
+ * <p>The file holds big-endian ints. After a header of eight ints (a magic number, the format
+ * version, the number of attendees, the number of events and the offsets of the four sections),
+ * the sections are:
+ *
+ * <ul>
+ *   <li>Attendees: {@code numAttendees + 1} byte offsets, followed by the UTF-8 names. The index
+ *       of a name is the attendee's id within the file.
+ *   <li>Busy times: {@code numAttendees + 1} positions, followed by the merged busy intervals of
+ *       every attendee as start and end pairs.
+ *   <li>Events: the start and the duration of every event, then {@code numEvents + 1} positions,
+ *       followed by the attendee ids of every event.
+ *   <li>Titles: {@code numEvents + 1} byte offsets, followed by the UTF-8 titles.
+ * </ul>
+ *
+ * <p>A file is limited to 2 GB, the size of a single mapping.
+ */
+public final class MappedEventFile implements BusyTimes {
+  private static final int MAGIC = 0x53505345;
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_BYTES = 8 * Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  private final int numEvents;
+  private final int attendeesOffset;
+  private final int busyOffset;
+  private final int eventsOffset;
+  private final int titlesOffset;
+
+  private final int numAttendees;
+
+  // An open-addressing hash table of the attendee names, holding each attendee's id within the file
+  // plus one, with zero for an empty slot. Its length is a power of two.
+  private final int[] nameTable;
+
+  // The id within the file of every global id asked for so far that the file has. Misses are not
+  // kept, so it holds at most one entry per attendee in the file.
+  private final ConcurrentHashMap<Integer, Integer> localIds = new ConcurrentHashMap<>();
+
+  private MappedEventFile(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not an event file");
+    }
+    if (buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IOException("Unsupported event file version " + buffer.getInt(4));
+    }
+    numAttendees = buffer.getInt(8);
+    numEvents = buffer.getInt(12);
+    attendeesOffset = buffer.getInt(16);
+    busyOffset = buffer.getInt(20);
+    eventsOffset = buffer.getInt(24);
+    titlesOffset = buffer.getInt(28);
+
+    nameTable = new int[Integer.highestOneBit(Math.max(1, numAttendees)) * 4];
+    int mask = nameTable.length - 1;
+    for (int i = 0; i < numAttendees; i++) {
+      int slot = hashName(i) & mask;
+      while (nameTable[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      nameTable[slot] = i + 1;
+    }
+  }
+
+  /**
+   * Maps the event file at {@code path} into memory.
+   */
+  public static MappedEventFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Event file is larger than 2 GB");
+      }
+      return new MappedEventFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes {@code events} to {@code path} in the format read by {@code open}, replacing any
+   * existing file.
+   */
+  public static void write(Collection<Event> events, Path path) throws IOException {
+    // Give every attendee an id within the file, in order of appearance.
+    Map<String, Integer> localIds = new HashMap<>();
+    List<byte[]> names = new ArrayList<>();
+    List<byte[]> titles = new ArrayList<>(events.size());
+    int numEventAttendees = 0;
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        if (localIds.putIfAbsent(attendee, names.size()) == null) {
+          names.add(attendee.getBytes(StandardCharsets.UTF_8));
+        }
+      }
+      numEventAttendees += event.getAttendees().size();
+      titles.add(event.getTitle().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Merge the busy times of every attendee.
+    AttendeeIndex index = AttendeeIndex.of(events);
+    long[][] busy = new long[names.size()][];
+    int numBusyInts = 0;
+    for (Map.Entry<String, Integer> entry : localIds.entrySet()) {
+      long[] intervals = index.busyIntervals(AttendeeDictionary.global().idOf(entry.getKey()));
+      busy[entry.getValue()] = intervals;
+      numBusyInts += intervals.length;
+    }
+
+    int attendeesOffset = HEADER_BYTES;
+    int busyOffset = attendeesOffset + (names.size() + 1) * Integer.BYTES + totalLength(names);
+    int eventsOffset = busyOffset + (names.size() + 1 + numBusyInts) * Integer.BYTES;
+    int titlesOffset =
+        eventsOffset + (3 * events.size() + 1 + numEventAttendees) * Integer.BYTES;
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(names.size());
+      out.writeInt(events.size());
+      out.writeInt(attendeesOffset);
+      out.writeInt(busyOffset);
+      out.writeInt(eventsOffset);
+      out.writeInt(titlesOffset);
+
+      writeStrings(out, names);
+
+      int position = 0;
+      for (long[] intervals : busy) {
+        out.writeInt(position);
+        position += intervals.length;
+      }
+      out.writeInt(position);
+      for (long[] intervals : busy) {
+        for (long time : intervals) {
+          out.writeInt((int) time);
+        }
+      }
+
+      for (Event event : events) {
+        out.writeInt(event.getWhen().start());
+      }
+      for (Event event : events) {
+        out.writeInt(event.getWhen().duration());
+      }
+      position = 0;
+      for (Event event : events) {
+        out.writeInt(position);
+        position += event.getAttendees().size();
+      }
+      out.writeInt(position);
+      for (Event event : events) {
+        for (String attendee : event.getAttendees()) {
+          out.writeInt(localIds.get(attendee));
+        }
+      }
+
+      writeStrings(out, titles);
+    }
+  }
+
+  /**
+   * Returns the number of events in the file.
+   */
+  public int size() {
+    return numEvents;
+  }
+
+  /**
+   * Returns a read-only view of the events in the file. Each {@code get} reads the event from the
+   * file, so callers that only pass over the events keep no more than one of them on the heap.
+   */
+  public List<Event> getEvents() {
+    return new AbstractList<Event>() {
+      @Override
+      public Event get(int index) {
+        return getEvent(index);
+      }
+
+      @Override
+      public int size() {
+        return numEvents;
+      }
+    };
+  }
+
+  /**
+   * Reads the event at {@code index} from the file.
+   */
+  public Event getEvent(int index) {
+    if (index < 0 || index >= numEvents) {
+      throw new IndexOutOfBoundsException("No event at index " + index);
+    }
+    int start = buffer.getInt(eventsOffset + index * Integer.BYTES);
+    int duration = buffer.getInt(eventsOffset + (numEvents + index) * Integer.BYTES);
+
+    int positions = eventsOffset + 2 * numEvents * Integer.BYTES;
+    int ids = positions + (numEvents + 1) * Integer.BYTES;
+    int from = buffer.getInt(positions + index * Integer.BYTES);
+    int to = buffer.getInt(positions + (index + 1) * Integer.BYTES);
+    List<String> attendees = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      int localId = buffer.getInt(ids + i * Integer.BYTES);
+      attendees.add(readString(attendeesOffset, numAttendees, localId));
+    }
+
+    return new Event(readString(titlesOffset, numEvents, index),
+        TimeRange.fromStartDuration(start, duration), attendees);
+  }
+
+  /**
+   * Returns the global id of {@code name}, interning it first if it is in the file, or
+   * {@code AttendeeDictionary.UNKNOWN} if it is in neither the dictionary nor the file.
+   */
+  @Override
+  public int idOf(String name) {
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+    int id = dictionary.idOf(name);
+    if (id == AttendeeDictionary.UNKNOWN && findName(name) >= 0) {
+      id = dictionary.intern(name);
+    }
+    return id;
+  }
+
+  @Override
+  public long[] busyIntervals(int attendeeId, long from, long to) {
+    int localId = localIdOf(attendeeId);
+    if (localId < 0) {
+      return Intervals.EMPTY;
+    }
+    int intervals = busyOffset + (numAttendees + 1) * Integer.BYTES;
+    int first = buffer.getInt(busyOffset + localId * Integer.BYTES) / 2;
+    int end = buffer.getInt(busyOffset + (localId + 1) * Integer.BYTES) / 2;
+
+    // The intervals are merged, so both their starts and their ends are sorted. Binary search for
+    // the first interval ending after {@code from}, and then for the first starting at or after
+    // {@code to}.
+    int low = first;
+    int high = end;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (buffer.getInt(intervals + (2 * mid + 1) * Integer.BYTES) <= from) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    int sliceStart = low;
+    high = end;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (buffer.getInt(intervals + 2 * mid * Integer.BYTES) < to) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    long[] busy = new long[2 * (low - sliceStart)];
+    for (int i = 0; i < busy.length; i++) {
+      busy[i] = buffer.getInt(intervals + (2 * sliceStart + i) * Integer.BYTES);
+    }
+    return busy;
+  }
+
+  // Returns the id within the file of the attendee with the given global id, or -1.
+  private int localIdOf(int attendeeId) {
+    if (attendeeId < 0 || attendeeId >= AttendeeDictionary.global().size()) {
+      return -1;
+    }
+    Integer localId = localIds.get(attendeeId);
+    if (localId == null) {
+      localId = findName(AttendeeDictionary.global().nameOf(attendeeId));
+      if (localId >= 0) {
+        localIds.put(attendeeId, localId);
+      }
+    }
+    return localId;
+  }
+
+  // Returns the id within the file of the attendee named {@code name}, or -1.
+  private int findName(String name) {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    int hash = 0;
+    for (byte b : bytes) {
+      hash = 31 * hash + b;
+    }
+    int mask = nameTable.length - 1;
+    for (int slot = spread(hash) & mask; nameTable[slot] != 0; slot = (slot + 1) & mask) {
+      int localId = nameTable[slot] - 1;
+      if (nameEquals(localId, bytes)) {
+        return localId;
+      }
+    }
+    return -1;
+  }
+
+  // Hashes the UTF-8 bytes of attendee {@code localId} the same way as {@code findName}.
+  private int hashName(int localId) {
+    int data = attendeesOffset + (numAttendees + 1) * Integer.BYTES;
+    int start = buffer.getInt(attendeesOffset + localId * Integer.BYTES);
+    int end = buffer.getInt(attendeesOffset + (localId + 1) * Integer.BYTES);
+    int hash = 0;
+    for (int i = data + start; i < data + end; i++) {
+      hash = 31 * hash + buffer.get(i);
+    }
+    return spread(hash);
+  }
+
+  private boolean nameEquals(int localId, byte[] bytes) {
+    int data = attendeesOffset + (numAttendees + 1) * Integer.BYTES;
+    int start = buffer.getInt(attendeesOffset + localId * Integer.BYTES);
+    int end = buffer.getInt(attendeesOffset + (localId + 1) * Integer.BYTES);
+    if (end - start != bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if (buffer.get(data + start + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Mixes the high bits of {@code hash} into the low bits that pick a slot.
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  // Reads string {@code index} of the string section at {@code offset}, which has {@code count}
+  // strings.
+  private String readString(int offset, int count, int index) {
+    int data = offset + (count + 1) * Integer.BYTES;
+    int start = buffer.getInt(offset + index * Integer.BYTES);
+    int end = buffer.getInt(offset + (index + 1) * Integer.BYTES);
+    byte[] bytes = new byte[end - start];
+    ByteBuffer view = buffer.duplicate();
+    view.position(data + start);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int totalLength(List<byte[]> strings) {
+    int length = 0;
+    for (byte[] string : strings) {
+      length += string.length;
+    }
+    return length;
+  }
+
+  private static void writeStrings(DataOutputStream out, List<byte[]> strings) throws IOException {
+    int offset = 0;
+    for (byte[] string : strings) {
+      out.writeInt(offset);
+      offset += string.length;
+    }
+    out.writeInt(offset);
+    for (byte[] string : strings) {
+      out.write(string);
+    }
+  }
+}
@@ -0,0 +1,193 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * The busy minutes of every attendee in a collection of single-day events, stored as one bitmap per
+ * attendee. Bit {@code m} of a bitmap is set if the attendee is busy during minute {@code m} of the
+ * day, so a whole day fits in 23 longs. Indexes are read-only and safe to share between threads.
+ *
+ * <p>Combining attendees ORs their bitmaps one word at a time, and free time is found by jumping
+ * from one set or clear bit to the next with {@code Long.numberOfTrailingZeros}. Finding when 50
+ * attendees are all free touches about a thousand words and allocates nothing but the result.
+ */
+public final class MinuteBitmapIndex implements BusyTimes {
+  private static final int MINUTES_PER_DAY = TimeRange.END_OF_DAY + 1;
+  private static final int WORDS = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+  // Busy bitmaps indexed by attendee id in the global {@code AttendeeDictionary}. Ids past the end
+  // of the array, and null entries, have no busy time.
+  private final long[][] busyById;
+
+  private MinuteBitmapIndex(long[][] busyById) {
+    this.busyById = busyById;
+  }
+
+  /**
+   * Creates an index of every attendee in {@code events}.
+   */
+  public static MinuteBitmapIndex of(Collection<Event> events) {
+    // Size the index by the largest id in the events rather than by the whole dictionary, which
+    // also holds the names of every other event the process has seen. Event ids are sorted, so
+    // the largest is the last one.
+    int maxId = -1;
+    for (Event event : events) {
+      int[] ids = event.getAttendeeIds();
+      if (ids.length > 0) {
+        maxId = Math.max(maxId, ids[ids.length - 1]);
+      }
+    }
+
+    long[][] busyById = new long[maxId + 1][];
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      for (int id : event.getAttendeeIds()) {
+        if (busyById[id] == null) {
+          busyById[id] = new long[WORDS];
+        }
+        set(busyById[id], when.start(), when.end());
+      }
+    }
+    return new MinuteBitmapIndex(busyById);
+  }
+
+  @Override
+  public long[] busyIntervals(int attendeeId, long from, long to) {
+    if (attendeeId < 0 || attendeeId >= busyById.length || busyById[attendeeId] == null) {
+      return Intervals.EMPTY;
+    }
+    long[] busy = busyById[attendeeId];
+    int start = (int) Math.max(0, Math.min(from, MINUTES_PER_DAY));
+    int end = (int) Math.max(start, Math.min(to, MINUTES_PER_DAY));
+
+    // Intervals overlapping the window are returned whole, so first move back to where the
+    // interval containing {@code start}, if any, begins.
+    if (start > 0 && isSet(busy, start - 1) && isSet(busy, start)) {
+      start = previousClear(busy, start) + 1;
+    }
+
+    TimeRangeList intervals = new TimeRangeList();
+    int minute = nextSet(busy, start, MINUTES_PER_DAY);
+    while (minute < end) {
+      int runEnd = nextClear(busy, minute, MINUTES_PER_DAY);
+      intervals.add(minute, runEnd);
+      minute = nextSet(busy, runEnd, MINUTES_PER_DAY);
+    }
+    return intervals.toArray();
+  }
+
+  @Override
+  public long[] freeIntervals(int[] attendeeIds, long from, long to, long minLength) {
+    if (from < 0 || to > MINUTES_PER_DAY) {
+      return BusyTimes.super.freeIntervals(attendeeIds, from, to, minLength);
+    }
+
+    long[] busy = new long[WORDS];
+    for (int id : attendeeIds) {
+      if (id >= 0 && id < busyById.length && busyById[id] != null) {
+        long[] attendeeBusy = busyById[id];
+        for (int i = 0; i < WORDS; i++) {
+          busy[i] |= attendeeBusy[i];
+        }
+      }
+    }
+
+    TimeRangeList free = new TimeRangeList();
+    int limit = (int) to;
+    int minute = nextClear(busy, (int) from, limit);
+    while (minute < limit) {
+      int runEnd = nextSet(busy, minute, limit);
+      if (runEnd - minute >= minLength) {
+        free.add(minute, runEnd);
+      }
+      minute = nextClear(busy, runEnd, limit);
+    }
+    return free.toArray();
+  }
+
+  // Sets the bits of the minutes in {@code [start, end)}.
+  private static void set(long[] bits, int start, int end) {
+    if (start >= end) {
+      return;
+    }
+    int first = start >>> 6;
+    int last = (end - 1) >>> 6;
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> -end;
+    if (first == last) {
+      bits[first] |= firstMask & lastMask;
+      return;
+    }
+    bits[first] |= firstMask;
+    for (int i = first + 1; i < last; i++) {
+      bits[i] = -1L;
+    }
+    bits[last] |= lastMask;
+  }
+
+  private static boolean isSet(long[] bits, int minute) {
+    return (bits[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  // Returns the first set minute at or after {@code minute}, or {@code limit} if there is none
+  // before it.
+  private static int nextSet(long[] bits, int minute, int limit) {
+    int word = minute >>> 6;
+    if (word >= WORDS) {
+      return limit;
+    }
+    long bitsLeft = bits[word] & (-1L << minute);
+    while (bitsLeft == 0) {
+      if (++word == WORDS) {
+        return limit;
+      }
+      bitsLeft = bits[word];
+    }
+    return Math.min(limit, word * Long.SIZE + Long.numberOfTrailingZeros(bitsLeft));
+  }
+
+  // Returns the first clear minute at or after {@code minute}, or {@code limit} if there is none
+  // before it.
+  private static int nextClear(long[] bits, int minute, int limit) {
+    int word = minute >>> 6;
+    if (word >= WORDS) {
+      return limit;
+    }
+    long bitsLeft = ~bits[word] & (-1L << minute);
+    while (bitsLeft == 0) {
+      if (++word == WORDS) {
+        return limit;
+      }
+      bitsLeft = ~bits[word];
+    }
+    return Math.min(limit, word * Long.SIZE + Long.numberOfTrailingZeros(bitsLeft));
+  }
+
+  // Returns the last clear minute before {@code minute}, or -1 if there is none.
+  private static int previousClear(long[] bits, int minute) {
+    int word = (minute - 1) >>> 6;
+    long bitsLeft = ~bits[word] & (-1L >>> -minute);
+    while (bitsLeft == 0) {
+      if (--word < 0) {
+        return -1;
+      }
+      bitsLeft = ~bits[word];
+    }
+    return word * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(bitsLeft);
+  }
+}
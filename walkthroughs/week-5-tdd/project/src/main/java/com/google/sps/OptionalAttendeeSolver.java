@@ -0,0 +1,469 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the parts of the mandatory meeting times where the greatest number of optional attendees
+ * can attend.
+ *
+ * <p>Times are minutes on any scale, packed into ranges as described in {@code Intervals}. Each
+ * optional attendee is identified by an owner index in {@code [0, numOptional)}. The solver
+ * slides a meeting-sized window over each mandatory range and keeps a busy counter per owner, so
+ * the number of distinct busy owners is known at every step without rebuilding any sets. The window
+ * only stops where a busy interval enters or leaves it, which makes each pass over a range cost
+ * O(b log b) in the number b of busy intervals overlapping it. The ranges are visited in order, so
+ * finding the intervals that overlap them reads the n sorted busy intervals once in total, on top of
+ * the O(n log n) sort.
+ *
+ * <p>The results are identical to searching every start minute: for the smallest number k of
+ * unavailable optional attendees that any range allows, the ranges reaching k are scanned from
+ * their start, and every window with at most k unavailable attendees is extended as far as it can
+ * go before the scan resumes at its end.
+ */
+final class OptionalAttendeeSolver {
+  private final int numOptional;
+  private final long duration;
+
+  private long[] starts = new long[16];
+  private long[] ends = new long[16];
+  private int[] owners = new int[16];
+  private int size = 0;
+
+  // The earliest start of any busy interval, which the sort keys are relative to.
+  private long base;
+
+  /**
+   * Creates a solver for a meeting of {@code duration} minutes with {@code numOptional} optional
+   * attendees. Optional attendees that never get a busy interval are always available.
+   */
+  OptionalAttendeeSolver(int numOptional, long duration) {
+    this.numOptional = numOptional;
+    this.duration = duration;
+  }
+
+  /**
+   * Marks the optional attendee {@code owner} as busy from {@code start} (inclusive) to {@code end}
+   * (exclusive). Intervals of the same owner may overlap.
+   */
+  void addBusy(int owner, long start, long end) {
+    if (owner < 0 || owner >= numOptional) {
+      throw new IllegalArgumentException("owner must be in [0, numOptional)");
+    }
+
+    if (start >= end) {
+      return;
+    }
+
+    if (size == starts.length) {
+      starts = Arrays.copyOf(starts, size * 2);
+      ends = Arrays.copyOf(ends, size * 2);
+      owners = Arrays.copyOf(owners, size * 2);
+    }
+    starts[size] = start;
+    ends[size] = end;
+    owners[size] = owner;
+    size++;
+  }
+
+  /**
+   * Returns the sub-ranges of {@code mandatoryRanges} where the greatest number of optional
+   * attendees can attend. If no optional attendee can attend any meeting, {@code mandatoryRanges}
+   * itself is returned. The mandatory ranges must be sorted and must not overlap.
+   */
+  long[] solve(long[] mandatoryRanges) {
+    if (numOptional == 0 || mandatoryRanges.length == 0) {
+      return mandatoryRanges;
+    }
+
+    Overlaps overlaps = new Overlaps(sortByStart());
+    List<Window> windows = new ArrayList<>(mandatoryRanges.length / 2);
+    int[] counts = new int[numOptional];
+    int fewestUnavailable = numOptional;
+    for (int i = 0; i < mandatoryRanges.length; i += 2) {
+      Window window = new Window(mandatoryRanges[i], mandatoryRanges[i + 1], overlaps, counts);
+      windows.add(window);
+      fewestUnavailable = Math.min(fewestUnavailable, window.fewestUnavailable());
+    }
+
+    // No window of the required duration exists where any optional attendee can attend.
+    if (fewestUnavailable >= numOptional) {
+      return mandatoryRanges;
+    }
+
+    TimeRangeList result = new TimeRangeList();
+    for (Window window : windows) {
+      if (window.fewestUnavailable == fewestUnavailable) {
+        window.collect(fewestUnavailable, result);
+      }
+    }
+    return result.toArray();
+  }
+
+  /**
+   * Returns the same ranges as {@code solve}, as {@code [start, end]} pairs, reading the mandatory
+   * ranges from {@code mandatoryRanges} only as far as needed and finding the results of each
+   * mandatory range only when they are asked for.
+   *
+   * <p>Every mandatory range must be scanned before the smallest number of unavailable optional
+   * attendees is known, unless a range where everyone can attend is found first. In that case the
+   * ranges after it are read one at a time as the results are consumed, so asking for the first
+   * meeting time usually stops long before the end of the mandatory ranges.
+   */
+  Iterator<long[]> iterate(Iterator<long[]> mandatoryRanges) {
+    if (numOptional == 0) {
+      return mandatoryRanges;
+    }
+
+    Overlaps overlaps = new Overlaps(sortByStart());
+    int[] counts = new int[numOptional];
+
+    // Scan the ranges until one where everyone can attend, keeping only those that reach the
+    // fewest unavailable attendees so far.
+    List<Window> pending = new ArrayList<>();
+    int fewestUnavailable = numOptional;
+    while (fewestUnavailable > 0 && mandatoryRanges.hasNext()) {
+      long[] range = mandatoryRanges.next();
+      Window window = new Window(range[0], range[1], overlaps, counts);
+      int unavailable = window.fewestUnavailable();
+      if (unavailable < fewestUnavailable) {
+        fewestUnavailable = unavailable;
+        pending.clear();
+      }
+      if (unavailable == fewestUnavailable) {
+        pending.add(window);
+      }
+    }
+    int maxUnavailable = fewestUnavailable;
+
+    return new Iterator<long[]>() {
+      private final Iterator<Window> scanned = pending.iterator();
+      private final TimeRangeList results = new TimeRangeList();
+      private int nextResult = 0;
+
+      @Override
+      public boolean hasNext() {
+        while (nextResult == results.size()) {
+          Window window = nextWindow();
+          if (window == null) {
+            return false;
+          }
+          results.clear();
+          nextResult = 0;
+          if (maxUnavailable == numOptional) {
+            // Nobody can attend any meeting, so every mandatory range is returned whole.
+            results.add(window.rangeStart, window.rangeEnd);
+          } else {
+            window.collect(maxUnavailable, results);
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public long[] next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        long[] range = {results.start(nextResult), results.end(nextResult)};
+        nextResult++;
+        return range;
+      }
+
+      // Returns the next mandatory range that reaches the fewest unavailable attendees, or null.
+      private Window nextWindow() {
+        if (scanned.hasNext()) {
+          return scanned.next();
+        }
+        while (mandatoryRanges.hasNext()) {
+          long[] range = mandatoryRanges.next();
+          Window window = new Window(range[0], range[1], overlaps, counts);
+          if (window.fewestUnavailable() == maxUnavailable) {
+            return window;
+          }
+        }
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Returns the {@code k} best meeting times within {@code mandatoryRanges}, best first. A meeting
+   * time is better if more optional attendees can attend it, and then if it starts earlier. Each
+   * mandatory range contributes the windows where the most optional attendees can attend within
+   * that range, found the same way as in {@code solve}.
+   *
+   * <p>The ranges are visited in time order, so a later window only replaces one of the {@code k}
+   * best if more optional attendees can attend it. Once all {@code k} can be attended by every
+   * optional attendee, nothing later can beat them and the remaining ranges are never scanned.
+   */
+  long[] best(long[] mandatoryRanges, int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive");
+    }
+
+    // Ordered with the worst meeting time at the head: fewest available attendees first, and then
+    // the latest start.
+    PriorityQueue<long[]> best = new PriorityQueue<>(Math.min(k, 64), (a, b) -> a[2] != b[2]
+        ? Long.compare(a[2], b[2])
+        : Long.compare(b[0], a[0]));
+
+    Overlaps overlaps = new Overlaps(sortByStart());
+    int[] counts = new int[numOptional];
+    TimeRangeList windows = new TimeRangeList();
+    for (int i = 0; i < mandatoryRanges.length; i += 2) {
+      if (best.size() == k && best.peek()[2] == numOptional) {
+        break;
+      }
+
+      Window window = new Window(mandatoryRanges[i], mandatoryRanges[i + 1], overlaps, counts);
+      int fewestUnavailable = window.fewestUnavailable();
+      long available = numOptional - fewestUnavailable;
+      if (best.size() == k && available <= best.peek()[2]) {
+        continue;
+      }
+
+      windows.clear();
+      window.collect(fewestUnavailable, windows);
+      for (int j = 0; j < windows.size(); j++) {
+        if (best.size() == k) {
+          // The windows of a range are in time order, so none of the rest can beat the worst one.
+          if (available <= best.peek()[2]) {
+            break;
+          }
+          best.poll();
+        }
+        best.add(new long[] {windows.start(j), windows.end(j), available});
+      }
+    }
+
+    long[] result = new long[2 * best.size()];
+    for (int i = result.length - 2; i >= 0; i -= 2) {
+      long[] slot = best.poll();
+      result[i] = slot[0];
+      result[i + 1] = slot[1];
+    }
+    return result;
+  }
+
+  /**
+   * Sorts the busy intervals by start time, by packing each start, relative to the earliest one,
+   * into the upper bits of a long and the interval's index into the lower bits.
+   */
+  private long[] sortByStart() {
+    base = Long.MAX_VALUE;
+    long latest = Long.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      base = Math.min(base, starts[i]);
+      latest = Math.max(latest, ends[i]);
+    }
+    if (size > 0 && latest - base > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Busy intervals span too much time");
+    }
+    long[] byStart = new long[size];
+    for (int i = 0; i < size; i++) {
+      byStart[i] = ((starts[i] - base) << 32) | i;
+    }
+    Arrays.sort(byStart);
+    return byStart;
+  }
+
+  /**
+   * Hands out the busy intervals overlapping each mandatory range in turn. The ranges must be asked
+   * for in time order, so every interval is read from {@code byStart} once, and afterwards is only
+   * kept for as long as it may still overlap a later range.
+   */
+  private final class Overlaps {
+    private final long[] byStart;
+    private int next = 0;
+
+    // The intervals already read that end after the last range, in order of their start time.
+    private int[] pending = new int[16];
+    private int numPending = 0;
+
+    Overlaps(long[] byStart) {
+      this.byStart = byStart;
+    }
+
+    /**
+     * Returns the indices of the busy intervals overlapping {@code [rangeStart, rangeEnd)}, in order
+     * of their start time. The range must start at or after the end of the previous one.
+     */
+    int[] overlapping(long rangeStart, long rangeEnd) {
+      int[] found = new int[Math.max(16, numPending)];
+      int numFound = 0;
+      // Every pending interval started before the previous range ended, so before any unread one.
+      for (int i = 0; i < numPending; i++) {
+        if (ends[pending[i]] > rangeStart) {
+          found[numFound++] = pending[i];
+        }
+      }
+      for (; next < byStart.length; next++) {
+        int index = (int) byStart[next];
+        if (starts[index] >= rangeEnd) {
+          break;
+        }
+        if (ends[index] > rangeStart) {
+          if (numFound == found.length) {
+            found = Arrays.copyOf(found, 2 * numFound);
+          }
+          found[numFound++] = index;
+        }
+      }
+
+      if (pending.length < numFound) {
+        pending = new int[found.length];
+      }
+      numPending = 0;
+      for (int i = 0; i < numFound; i++) {
+        if (ends[found[i]] > rangeEnd) {
+          pending[numPending++] = found[i];
+        }
+      }
+      return Arrays.copyOf(found, numFound);
+    }
+  }
+
+  /**
+   * The busy intervals overlapping one mandatory range, together with a window that can only move
+   * forward over them.
+   */
+  private final class Window {
+    private final long rangeStart;
+    private final long rangeEnd;
+    private final long lastStart;
+    private final int[] counts;
+
+    // Interval indices in order of their start time and in order of their end time.
+    private final int[] enterOrder;
+    private final int[] leaveOrder;
+
+    private int entered;
+    private int left;
+    private int unavailable;
+    private int fewestUnavailable;
+
+    Window(long rangeStart, long rangeEnd, Overlaps overlaps, int[] counts) {
+      this.rangeStart = rangeStart;
+      this.rangeEnd = rangeEnd;
+      this.lastStart = rangeEnd - duration;
+      this.counts = counts;
+
+      enterOrder = overlaps.overlapping(rangeStart, rangeEnd);
+      int numOverlapping = enterOrder.length;
+
+      long[] byEnd = new long[numOverlapping];
+      for (int i = 0; i < numOverlapping; i++) {
+        byEnd[i] = ((ends[enterOrder[i]] - base) << 32) | enterOrder[i];
+      }
+      Arrays.sort(byEnd);
+      leaveOrder = new int[numOverlapping];
+      for (int i = 0; i < numOverlapping; i++) {
+        leaveOrder[i] = (int) byEnd[i];
+      }
+    }
+
+    /**
+     * Returns the smallest number of optional attendees that are unavailable during some window of
+     * the meeting's duration inside this range.
+     */
+    int fewestUnavailable() {
+      fewestUnavailable = numOptional;
+      reset();
+      long start = rangeStart;
+      while (start <= lastStart) {
+        moveTo(start, start + duration);
+        fewestUnavailable = Math.min(fewestUnavailable, unavailable);
+
+        // Until the next interval leaves the window, moving forward can only add attendees.
+        if (fewestUnavailable == 0 || left == leaveOrder.length) {
+          break;
+        }
+        start = ends[leaveOrder[left]];
+      }
+      reset();
+      return fewestUnavailable;
+    }
+
+    /**
+     * Adds to {@code result} every window where at most {@code maxUnavailable} optional attendees
+     * are unavailable, extending each window for as long as that still holds.
+     */
+    void collect(int maxUnavailable, TimeRangeList result) {
+      reset();
+      long start = rangeStart;
+      while (start <= lastStart) {
+        long end = start + duration;
+        moveTo(start, end);
+
+        if (unavailable > maxUnavailable) {
+          // Until the next interval leaves the window, moving forward can only add attendees.
+          if (left == leaveOrder.length) {
+            break;
+          }
+          start = ends[leaveOrder[left]];
+          continue;
+        }
+
+        while (end < rangeEnd) {
+          moveTo(start, end + 1);
+          if (unavailable > maxUnavailable) {
+            break;
+          }
+          // Nobody new becomes unavailable before the next interval starts.
+          end = entered == enterOrder.length
+              ? rangeEnd
+              : Math.min(Math.max(end + 1, starts[enterOrder[entered]]), rangeEnd);
+        }
+        result.add(start, end);
+        start = end;
+      }
+      reset();
+    }
+
+    /**
+     * Moves the window to {@code [start, end)}. Neither bound may move backwards.
+     */
+    private void moveTo(long start, long end) {
+      while (entered < enterOrder.length && starts[enterOrder[entered]] < end) {
+        if (counts[owners[enterOrder[entered]]]++ == 0) {
+          unavailable++;
+        }
+        entered++;
+      }
+      while (left < leaveOrder.length && ends[leaveOrder[left]] <= start) {
+        if (--counts[owners[leaveOrder[left]]] == 0) {
+          unavailable--;
+        }
+        left++;
+      }
+    }
+
+    private void reset() {
+      for (int i = 0; i < entered; i++) {
+        counts[owners[enterOrder[i]]] = 0;
+      }
+      entered = 0;
+      left = 0;
+      unavailable = 0;
+    }
+  }
+}
@@ -0,0 +1,178 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of meeting query results. Requests that only differ in the order of their
+ * attendees share an entry, since the key sorts the mandatory and the optional attendees. Every
+ * entry remembers the source and the version of the busy times it was computed from, so any change
+ * to the events makes the entry stale. When the cache is full, the least recently used entry is
+ * evicted.
+ *
+ * <p>The cache is safe to use from several threads. Results are computed outside the lock, so two
+ * threads that miss on the same request at once may both compute it. A result never replaces one
+ * computed from a newer version of the same source.
+ */
+public final class QueryCache {
+  private final FindMeetingQuery query = new FindMeetingQuery();
+  private final Map<Key, Entry> entries;
+
+  private long hits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+
+  /**
+   * Creates a cache holding at most {@code maxEntries} results.
+   */
+  public QueryCache(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+    this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, /* accessOrder= */ true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        if (size() > maxEntries) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the same meeting times as {@code FindMeetingQuery.query(source, request)}, reusing an
+   * earlier result if the busy times have not changed since. The returned collection is read-only
+   * and may be shared with other callers.
+   */
+  public Collection<TimeRange> query(BusyTimes source, MeetingRequest request) {
+    Key key = new Key(request);
+    long version = source.getVersion();
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null && entry.source == source && entry.version == version) {
+        hits++;
+        return entry.result;
+      }
+      misses++;
+    }
+
+    Collection<TimeRange> result =
+        Collections.unmodifiableList(new ArrayList<>(query.query(source, request)));
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry == null || entry.source != source || entry.version <= version) {
+        entries.put(key, new Entry(source, version, result));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of queries answered from the cache.
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of queries that had to be computed, including those whose entry was stale.
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of entries evicted to make room for newer ones.
+   */
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns the fraction of queries answered from the cache, or zero before the first query.
+   */
+  public synchronized double getHitRate() {
+    long queries = hits + misses;
+    return queries == 0 ? 0 : (double) hits / queries;
+  }
+
+  /**
+   * Returns the number of entries in the cache, including stale ones.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * A meeting request with its attendees in a canonical order.
+   */
+  private static final class Key {
+    private final String[] attendees;
+    private final String[] optionalAttendees;
+    private final long duration;
+    private final int hash;
+
+    Key(MeetingRequest request) {
+      attendees = sorted(request.getAttendees());
+      optionalAttendees = sorted(request.getOptionalAttendees());
+      duration = request.getDuration();
+      hash = 31 * (31 * Arrays.hashCode(attendees) + Arrays.hashCode(optionalAttendees))
+          + Long.hashCode(duration);
+    }
+
+    private static String[] sorted(Collection<String> names) {
+      String[] array = names.toArray(new String[0]);
+      Arrays.sort(array);
+      return array;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return hash == key.hash && duration == key.duration
+          && Arrays.equals(attendees, key.attendees)
+          && Arrays.equals(optionalAttendees, key.optionalAttendees);
+    }
+  }
+
+  private static final class Entry {
+    private final BusyTimes source;
+    private final long version;
+    private final Collection<TimeRange> result;
+
+    Entry(BusyTimes source, long version, Collection<TimeRange> result) {
+      this.source = source;
+      this.version = version;
+      this.result = result;
+    }
+  }
+}
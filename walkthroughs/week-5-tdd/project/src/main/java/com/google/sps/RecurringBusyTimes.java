@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Adds recurring events to another source of busy times. The occurrences of a series are only
+ * worked out for the window being read, so reading a week costs the same whether the series runs
+ * for a month or for years. Reads are safe to run concurrently as long as {@code base} allows it.
+ */
+public final class RecurringBusyTimes implements BusyTimes {
+  private final BusyTimes base;
+
+  // The series each attendee takes part in, indexed by attendee id in the global
+  // {@code AttendeeDictionary}. Ids past the end of the array, and null entries, have none.
+  private final RecurringEvent[][] seriesById;
+
+  /**
+   * Creates a source with the busy times of {@code base} and every occurrence of {@code series}.
+   */
+  public RecurringBusyTimes(BusyTimes base, Collection<RecurringEvent> series) {
+    this.base = base;
+
+    List<List<RecurringEvent>> byId = new ArrayList<>();
+    for (RecurringEvent recurring : series) {
+      for (int id : recurring.getAttendeeIds()) {
+        while (byId.size() <= id) {
+          byId.add(null);
+        }
+        if (byId.get(id) == null) {
+          byId.set(id, new ArrayList<>());
+        }
+        byId.get(id).add(recurring);
+      }
+    }
+    seriesById = new RecurringEvent[byId.size()][];
+    for (int id = 0; id < byId.size(); id++) {
+      if (byId.get(id) != null) {
+        seriesById[id] = byId.get(id).toArray(new RecurringEvent[0]);
+      }
+    }
+  }
+
+  @Override
+  public long[] busyIntervals(int attendeeId, long from, long to) {
+    long[] busy = base.busyIntervals(attendeeId, from, to);
+    if (attendeeId < 0 || attendeeId >= seriesById.length || seriesById[attendeeId] == null) {
+      return busy;
+    }
+
+    TimeRangeList intervals = TimeRangeList.wrap(Arrays.copyOf(busy, busy.length));
+    for (RecurringEvent recurring : seriesById[attendeeId]) {
+      recurring.addOccurrences(from, to, intervals);
+    }
+    intervals.merge();
+    return intervals.toArray();
+  }
+
+  @Override
+  public int idOf(String name) {
+    return base.idOf(name);
+  }
+
+  @Override
+  public long getVersion() {
+    return base.getVersion();
+  }
+}
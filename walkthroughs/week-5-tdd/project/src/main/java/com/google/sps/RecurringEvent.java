@@ -0,0 +1,196 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An event that repeats every day or every week, such as a standup. The series is stored as its
+ * first occurrence and a rule, and occurrences are only worked out for the window a query asks
+ * about, so the cost of a series does not depend on how long it runs. Times are minutes since the
+ * epoch, as in {@code EpochRange}. Recurring events are considered read-only.
+ */
+public final class RecurringEvent {
+
+  /**
+   * How often a recurring event repeats.
+   */
+  public enum Frequency {
+    DAILY(EpochRange.MINUTES_PER_DAY),
+    WEEKLY(7 * EpochRange.MINUTES_PER_DAY);
+
+    private final long periodMinutes;
+
+    Frequency(long periodMinutes) {
+      this.periodMinutes = periodMinutes;
+    }
+
+    /**
+     * Returns the number of minutes between the starts of two consecutive occurrences.
+     */
+    public long getPeriodMinutes() {
+      return periodMinutes;
+    }
+  }
+
+  private final String title;
+  private final EpochRange first;
+  private final Frequency frequency;
+  private final long until;
+  private final String[] attendees;
+
+  // The starts of the cancelled occurrences, sorted.
+  private final long[] exceptions;
+
+  // The attendees' ids in the global {@code AttendeeDictionary}, in ascending order.
+  private final transient int[] attendeeIds;
+
+  // The read-only view returned by {@code getAttendees}, shared by every occurrence.
+  private final transient Set<String> attendeeView;
+
+  /**
+   * Creates a series without exceptions.
+   */
+  public RecurringEvent(String title, EpochRange first, Frequency frequency, long until,
+      Collection<String> attendees) {
+    this(title, first, frequency, until, attendees, Collections.<Long>emptySet());
+  }
+
+  /**
+   * Creates a new series.
+   *
+   * @param title The human-readable name for the series. Must be non-null.
+   * @param first The first occurrence. Must be non-null.
+   * @param frequency How often the event repeats. Must be non-null.
+   * @param until No occurrence starts at or after this minute. Use {@code Long.MAX_VALUE} for a
+   *     series that never ends.
+   * @param attendees The collection of people attending every occurrence. Must be non-null.
+   * @param exceptions The start times of cancelled occurrences. Must be non-null.
+   */
+  public RecurringEvent(String title, EpochRange first, Frequency frequency, long until,
+      Collection<String> attendees, Collection<Long> exceptions) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (first == null) {
+      throw new IllegalArgumentException("first cannot be null");
+    }
+
+    if (frequency == null) {
+      throw new IllegalArgumentException("frequency cannot be null");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    if (exceptions == null) {
+      throw new IllegalArgumentException("exceptions cannot be null. Use empty array instead.");
+    }
+
+    this.title = title;
+    this.first = first;
+    this.frequency = frequency;
+    this.until = until;
+    this.attendees = AttendeeSet.sortedNames(attendees);
+    this.attendeeView = new AttendeeSet(this.attendees);
+    this.attendeeIds = AttendeeDictionary.global().internSorted(Arrays.asList(this.attendees));
+    this.exceptions = new long[exceptions.size()];
+    int i = 0;
+    for (long exception : exceptions) {
+      this.exceptions[i++] = exception;
+    }
+    Arrays.sort(this.exceptions);
+  }
+
+  /**
+   * Returns the human-readable name for this series.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the first occurrence of the series.
+   */
+  public EpochRange getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns how often the event repeats.
+   */
+  public Frequency getFrequency() {
+    return frequency;
+  }
+
+  /**
+   * Returns the minute at or after which no occurrence starts.
+   */
+  public long getUntil() {
+    return until;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for every occurrence.
+   */
+  public Set<String> getAttendees() {
+    return attendeeView;
+  }
+
+  /**
+   * Returns the ids of the attendees in the global {@code AttendeeDictionary}, in ascending order.
+   * The array is shared and must not be modified.
+   */
+  int[] getAttendeeIds() {
+    return attendeeIds;
+  }
+
+  /**
+   * Appends every occurrence that overlaps {@code [from, to)} to {@code occurrences}, in order.
+   * Only the occurrences inside the window are visited.
+   */
+  void addOccurrences(long from, long to, TimeRangeList occurrences) {
+    long period = frequency.periodMinutes;
+    long duration = first.duration();
+    if (duration <= 0) {
+      return;
+    }
+
+    // The first occurrence that ends after {@code from}.
+    long index = Math.max(0, Math.floorDiv(from - duration - first.start(), period) + 1);
+    for (long start = first.start() + index * period; start < to && start < until;
+        start += period) {
+      if (Arrays.binarySearch(exceptions, start) < 0) {
+        occurrences.add(start, start + duration);
+      }
+    }
+  }
+
+  /**
+   * Returns the occurrences that overlap {@code window}, in order.
+   */
+  public List<EpochRange> occurrencesIn(EpochRange window) {
+    TimeRangeList occurrences = new TimeRangeList();
+    addOccurrences(window.start(), window.end(), occurrences);
+    return occurrences.toEpochRanges();
+  }
+}
@@ -0,0 +1,69 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+/**
+ * Something other than a person that a meeting needs, such as a room. Resources are booked the
+ * same way as attendees: an event that uses a resource lists its name as one of the attendees.
+ */
+public final class Resource {
+  private final String name;
+  private final int capacity;
+
+  /**
+   * Creates a resource called {@code name} that fits up to {@code capacity} people.
+   */
+  public Resource(String name, int capacity) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+    this.name = name;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns the name that events use to book this resource.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the number of people that fit in this resource.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Resource && name.equals(((Resource) other).name)
+        && capacity == ((Resource) other).capacity;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * name.hashCode() + capacity;
+  }
+
+  @Override
+  public String toString() {
+    return name + " (" + capacity + ")";
+  }
+}
@@ -0,0 +1,66 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A meeting time paired with the resources that are free for all of it.
+ */
+public final class ResourceSlot {
+  private final TimeRange when;
+  private final List<Resource> resources;
+
+  public ResourceSlot(TimeRange when, List<Resource> resources) {
+    if (when == null || resources == null) {
+      throw new IllegalArgumentException("when and resources cannot be null");
+    }
+    this.when = when;
+    this.resources = Collections.unmodifiableList(resources);
+  }
+
+  /**
+   * Returns the meeting time.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns the resources that are free for the whole meeting time, in the order they were given
+   * to the query.
+   */
+  public List<Resource> getResources() {
+    return resources;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof ResourceSlot && when.equals(((ResourceSlot) other).when)
+        && resources.equals(((ResourceSlot) other).resources);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * when.hashCode() + resources.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return when + " " + resources;
+  }
+}
@@ -0,0 +1,303 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A growable list of time ranges packed into a single {@code long[]} as
+ * {@code [start0, end0, start1, end1, ...]}, with exclusive ends. Ranges are only turned into
+ * {@code TimeRange} objects by {@code toTimeRanges}, so the engine can build, sort and combine
+ * lists of any length without allocating anything per range.
+ *
+ * <p>A list is merged if its ranges are sorted by start and none of them overlap or touch.
+ * {@code intersect} and {@code subtract} require merged lists and return merged lists.
+ */
+public final class TimeRangeList {
+  private long[] ranges;
+  private int size = 0;
+
+  /**
+   * Creates an empty list.
+   */
+  public TimeRangeList() {
+    this(8);
+  }
+
+  /**
+   * Creates an empty list with room for {@code capacity} ranges.
+   */
+  public TimeRangeList(int capacity) {
+    ranges = new long[2 * Math.max(1, capacity)];
+  }
+
+  private TimeRangeList(long[] ranges, int size) {
+    this.ranges = ranges;
+    this.size = size;
+  }
+
+  /**
+   * Returns a list of the given ranges, in the same order.
+   */
+  public static TimeRangeList of(Collection<TimeRange> ranges) {
+    TimeRangeList list = new TimeRangeList(ranges.size());
+    for (TimeRange range : ranges) {
+      list.add(range.start(), range.end());
+    }
+    return list;
+  }
+
+  /**
+   * Returns a list backed by {@code packed}, which holds start and end pairs as described above.
+   * The array is not copied, so it must not be modified while the list is in use, and sorting or
+   * merging the list modifies the array.
+   */
+  static TimeRangeList wrap(long[] packed) {
+    return new TimeRangeList(packed, packed.length / 2);
+  }
+
+  /**
+   * Appends the range {@code [start, end)}.
+   */
+  public void add(long start, long end) {
+    if (2 * size == ranges.length) {
+      // A list that wraps an empty array has nothing to double, so make room for one range.
+      ranges = Arrays.copyOf(ranges, Math.max(2, 2 * ranges.length));
+    }
+    ranges[2 * size] = start;
+    ranges[2 * size + 1] = end;
+    size++;
+  }
+
+  /**
+   * Returns the number of ranges in the list.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns true if the list has no ranges.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the start of range {@code index}.
+   */
+  public long start(int index) {
+    checkIndex(index);
+    return ranges[2 * index];
+  }
+
+  /**
+   * Returns the exclusive end of range {@code index}.
+   */
+  public long end(int index) {
+    checkIndex(index);
+    return ranges[2 * index + 1];
+  }
+
+  /**
+   * Removes every range, keeping the storage for reuse.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Sorts the ranges by start, and ranges with the same start by end. The list is heap-sorted in
+   * place, so nothing is allocated.
+   */
+  public void sort() {
+    for (int i = size / 2 - 1; i >= 0; i--) {
+      siftDown(i, size);
+    }
+    for (int last = size - 1; last > 0; last--) {
+      swap(0, last);
+      siftDown(0, last);
+    }
+  }
+
+  /**
+   * Sorts the ranges and combines the ones that overlap or touch, in place. Empty ranges are
+   * dropped.
+   */
+  public void merge() {
+    sort();
+    int merged = 0;
+    for (int i = 0; i < size; i++) {
+      long start = ranges[2 * i];
+      long end = ranges[2 * i + 1];
+      if (start >= end) {
+        continue;
+      }
+      if (merged > 0 && start <= ranges[2 * merged - 1]) {
+        ranges[2 * merged - 1] = Math.max(ranges[2 * merged - 1], end);
+      } else {
+        ranges[2 * merged] = start;
+        ranges[2 * merged + 1] = end;
+        merged++;
+      }
+    }
+    size = merged;
+  }
+
+  /**
+   * Removes the ranges shorter than {@code minLength}, in place.
+   */
+  public void removeShorterThan(long minLength) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      if (ranges[2 * i + 1] - ranges[2 * i] >= minLength) {
+        ranges[2 * kept] = ranges[2 * i];
+        ranges[2 * kept + 1] = ranges[2 * i + 1];
+        kept++;
+      }
+    }
+    size = kept;
+  }
+
+  /**
+   * Returns the times that are in both this list and {@code other}. Both lists must be merged.
+   */
+  public TimeRangeList intersect(TimeRangeList other) {
+    TimeRangeList result = new TimeRangeList(Math.max(size, other.size));
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      long start = Math.max(ranges[2 * i], other.ranges[2 * j]);
+      long end = Math.min(ranges[2 * i + 1], other.ranges[2 * j + 1]);
+      if (start < end) {
+        result.add(start, end);
+      }
+      // Move past whichever range ends first; it cannot overlap anything else in the other list.
+      if (ranges[2 * i + 1] < other.ranges[2 * j + 1]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the times that are in this list but not in {@code other}. Both lists must be merged.
+   */
+  public TimeRangeList subtract(TimeRangeList other) {
+    TimeRangeList result = new TimeRangeList(size + other.size);
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      long start = ranges[2 * i];
+      long end = ranges[2 * i + 1];
+      // Skip the ranges of {@code other} that end before this range starts.
+      while (j < other.size && other.ranges[2 * j + 1] <= start) {
+        j++;
+      }
+      int k = j;
+      while (k < other.size && other.ranges[2 * k] < end) {
+        if (other.ranges[2 * k] > start) {
+          result.add(start, other.ranges[2 * k]);
+        }
+        start = Math.max(start, other.ranges[2 * k + 1]);
+        k++;
+      }
+      if (start < end) {
+        result.add(start, end);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the ranges as start and end pairs, in a new array.
+   */
+  long[] toArray() {
+    return Arrays.copyOf(ranges, 2 * size);
+  }
+
+  /**
+   * Returns the ranges as {@code TimeRange}s. Every range must lie within a day.
+   */
+  public List<TimeRange> toTimeRanges() {
+    List<TimeRange> timeRanges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      timeRanges.add(
+          TimeRange.fromStartEnd((int) ranges[2 * i], (int) ranges[2 * i + 1], false));
+    }
+    return timeRanges;
+  }
+
+  /**
+   * Returns the ranges as {@code EpochRange}s.
+   */
+  public List<EpochRange> toEpochRanges() {
+    List<EpochRange> epochRanges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      epochRanges.add(EpochRange.fromStartEnd(ranges[2 * i], ranges[2 * i + 1], false));
+    }
+    return epochRanges;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      builder.append(i == 0 ? "[" : ", [").append(ranges[2 * i]).append(", ")
+          .append(ranges[2 * i + 1]).append(")");
+    }
+    return builder.append("]").toString();
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("No range at index " + index);
+    }
+  }
+
+  private boolean less(int a, int b) {
+    long startA = ranges[2 * a];
+    long startB = ranges[2 * b];
+    return startA < startB || (startA == startB && ranges[2 * a + 1] < ranges[2 * b + 1]);
+  }
+
+  private void siftDown(int node, int heapSize) {
+    while (2 * node + 1 < heapSize) {
+      int child = 2 * node + 1;
+      if (child + 1 < heapSize && less(child, child + 1)) {
+        child++;
+      }
+      if (!less(node, child)) {
+        return;
+      }
+      swap(node, child);
+      node = child;
+    }
+  }
+
+  private void swap(int a, int b) {
+    long start = ranges[2 * a];
+    long end = ranges[2 * a + 1];
+    ranges[2 * a] = ranges[2 * b];
+    ranges[2 * a + 1] = ranges[2 * b + 1];
+    ranges[2 * b] = start;
+    ranges[2 * b + 1] = end;
+  }
+}
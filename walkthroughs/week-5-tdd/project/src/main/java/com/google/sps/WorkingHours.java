@@ -0,0 +1,163 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hours of the week when an attendee can be invited to meetings, in the attendee's own time
+ * zone, such as 9am to 5pm on weekdays in New York. The hours are compiled into minutes of the day
+ * and a set of days when the object is created, so turning them into epoch minutes for a window
+ * only costs a zone offset lookup per day in the window.
+ */
+public final class WorkingHours {
+  private final ZoneId zone;
+  private final LocalTime start;
+  private final LocalTime end;
+  private final Set<DayOfWeek> days;
+
+  private final ZoneRules rules;
+  private final int startMinute;
+  private final int endMinute;
+  // Bit {@code d} is set when working hours apply on {@code DayOfWeek.of(d + 1)}.
+  private final int dayMask;
+
+  /**
+   * Creates working hours from {@code start} to {@code end} on each of {@code days}, in
+   * {@code zone}. An {@code end} of midnight means the end of the day. Shifts that run past
+   * midnight are not supported.
+   */
+  public WorkingHours(ZoneId zone, LocalTime start, LocalTime end, Collection<DayOfWeek> days) {
+    if (zone == null || start == null || end == null || days == null) {
+      throw new IllegalArgumentException("zone, start, end and days cannot be null");
+    }
+    int startMinute = start.getHour() * 60 + start.getMinute();
+    int endMinute = end.equals(LocalTime.MIDNIGHT)
+        ? EpochRange.MINUTES_PER_DAY : end.getHour() * 60 + end.getMinute();
+    if (startMinute >= endMinute) {
+      throw new IllegalArgumentException("start must be before end");
+    }
+
+    this.zone = zone;
+    this.start = start;
+    this.end = end;
+    this.days = days.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(days);
+    this.rules = zone.getRules();
+    this.startMinute = startMinute;
+    this.endMinute = endMinute;
+
+    int dayMask = 0;
+    for (DayOfWeek day : this.days) {
+      dayMask |= 1 << (day.getValue() - 1);
+    }
+    this.dayMask = dayMask;
+  }
+
+  /**
+   * Creates working hours from {@code start} to {@code end}, Monday to Friday, in {@code zone}.
+   */
+  public static WorkingHours weekdays(ZoneId zone, LocalTime start, LocalTime end) {
+    return new WorkingHours(zone, start, end, EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+  }
+
+  /**
+   * Returns the time zone that the hours are in.
+   */
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * Returns the local time when work starts.
+   */
+  public LocalTime getStart() {
+    return start;
+  }
+
+  /**
+   * Returns the local time when work ends. Midnight means the end of the day.
+   */
+  public LocalTime getEnd() {
+    return end;
+  }
+
+  /**
+   * Returns the days of the week with working hours.
+   */
+  public Set<DayOfWeek> getDays() {
+    return EnumSet.copyOf(days);
+  }
+
+  /**
+   * Appends the times within {@code [from, to)} that are outside these working hours to
+   * {@code offHours}, in order, as epoch minutes.
+   */
+  void addOffHours(long from, long to, TimeRangeList offHours) {
+    if (from >= to) {
+      return;
+    }
+
+    // Start a day early and stop a day late, since the zone can be up to 18 hours from UTC.
+    long day = localDate(from).toEpochDay() - 1;
+    long lastDay = localDate(to).toEpochDay() + 1;
+    long offStart = from;
+    for (; day <= lastDay && offStart < to; day++) {
+      LocalDate date = LocalDate.ofEpochDay(day);
+      if ((dayMask & (1 << (date.getDayOfWeek().getValue() - 1))) == 0) {
+        continue;
+      }
+      long workStart = toEpochMinute(date, startMinute);
+      long workEnd = toEpochMinute(date, endMinute);
+      if (workStart > offStart) {
+        offHours.add(offStart, Math.min(workStart, to));
+      }
+      offStart = Math.max(offStart, workEnd);
+    }
+    if (offStart < to) {
+      offHours.add(offStart, to);
+    }
+  }
+
+  private LocalDate localDate(long epochMinute) {
+    return Instant.ofEpochSecond(TimeUnit.MINUTES.toSeconds(epochMinute)).atZone(zone)
+        .toLocalDate();
+  }
+
+  /**
+   * Returns the epoch minute of {@code minuteOfDay} on {@code date} in this zone. Local times that
+   * a daylight saving change skips are moved forward by the length of the change, and local times
+   * that happen twice use the earlier one, like {@code ZonedDateTime}.
+   */
+  private long toEpochMinute(LocalDate date, int minuteOfDay) {
+    int offsetMinutes =
+        rules.getOffset(date.atStartOfDay().plusMinutes(minuteOfDay)).getTotalSeconds() / 60;
+    return date.toEpochDay() * EpochRange.MINUTES_PER_DAY + minuteOfDay - offsetMinutes;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s-%s %s in %s", start, end, days, zone);
+  }
+}
@@ -0,0 +1,135 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Adds the time outside each attendee's {@code WorkingHours} to another source of busy times, so
+ * that meeting queries never consider those times instead of filtering them out afterwards.
+ * Attendees without working hours keep the busy times of the base source. Reads are safe to run
+ * concurrently as long as {@code base} allows it.
+ */
+public final class WorkingHoursBusyTimes implements BusyTimes {
+  private final BusyTimes base;
+
+  // The epoch minute that time zero of {@code base} stands for.
+  private final long origin;
+
+  // Working hours indexed by attendee id in the global {@code AttendeeDictionary}. Ids past the
+  // end of the array, and null entries, have none.
+  private final WorkingHours[] hoursById;
+
+  /**
+   * Creates a source for {@code base}, whose times are epoch minutes, such as an index of
+   * {@code DatedEvent}s.
+   */
+  public WorkingHoursBusyTimes(BusyTimes base, Map<String, WorkingHours> workingHours) {
+    this(base, 0, workingHours);
+  }
+
+  private WorkingHoursBusyTimes(BusyTimes base, long origin,
+      Map<String, WorkingHours> workingHours) {
+    this.base = base;
+    this.origin = origin;
+
+    // Names are interned so that attendees with working hours but no events are still masked.
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+    WorkingHours[] hoursById = new WorkingHours[0];
+    for (Map.Entry<String, WorkingHours> entry : workingHours.entrySet()) {
+      int id = dictionary.intern(entry.getKey());
+      if (id >= hoursById.length) {
+        hoursById = Arrays.copyOf(hoursById, Math.max(id + 1, 2 * hoursById.length));
+      }
+      hoursById[id] = entry.getValue();
+    }
+    this.hoursById = hoursById;
+  }
+
+  /**
+   * Creates a source for {@code base}, whose times are minutes since the start of a single day,
+   * such as an index of {@code Event}s. {@code dayStart} is the epoch minute when that day starts.
+   */
+  public static WorkingHoursBusyTimes onDay(BusyTimes base, long dayStart,
+      Map<String, WorkingHours> workingHours) {
+    return new WorkingHoursBusyTimes(base, dayStart, workingHours);
+  }
+
+  @Override
+  public long[] busyIntervals(int attendeeId, long from, long to) {
+    long[] busy = base.busyIntervals(attendeeId, from, to);
+    WorkingHours hours = hoursOf(attendeeId);
+    if (hours == null) {
+      return busy;
+    }
+
+    TimeRangeList intervals = TimeRangeList.wrap(Arrays.copyOf(busy, busy.length));
+    addOffHours(hours, from, to, intervals);
+    intervals.merge();
+    return intervals.toArray();
+  }
+
+  /**
+   * Finds the free time of the attendees in {@code base} first, so that a source with a fast way
+   * to combine attendees keeps it, and then removes the time outside anyone's working hours.
+   */
+  @Override
+  public long[] freeIntervals(int[] attendeeIds, long from, long to, long minLength) {
+    TimeRangeList offHours = new TimeRangeList();
+    for (int id : attendeeIds) {
+      WorkingHours hours = hoursOf(id);
+      if (hours != null) {
+        addOffHours(hours, from, to, offHours);
+      }
+    }
+    if (offHours.isEmpty()) {
+      return base.freeIntervals(attendeeIds, from, to, minLength);
+    }
+
+    offHours.merge();
+    TimeRangeList free = TimeRangeList.wrap(base.freeIntervals(attendeeIds, from, to, 1))
+        .subtract(offHours);
+    free.removeShorterThan(minLength);
+    return free.toArray();
+  }
+
+  @Override
+  public int idOf(String name) {
+    return base.idOf(name);
+  }
+
+  @Override
+  public long getVersion() {
+    return base.getVersion();
+  }
+
+  private WorkingHours hoursOf(int attendeeId) {
+    return attendeeId >= 0 && attendeeId < hoursById.length ? hoursById[attendeeId] : null;
+  }
+
+  private void addOffHours(WorkingHours hours, long from, long to, TimeRangeList intervals) {
+    if (origin == 0) {
+      hours.addOffHours(from, to, intervals);
+      return;
+    }
+    TimeRangeList offHours = new TimeRangeList();
+    hours.addOffHours(origin + from, origin + to, offHours);
+    for (int i = 0; i < offHours.size(); i++) {
+      intervals.add(offHours.start(i) - origin, offHours.end(i) - origin);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.AttendeeDictionary;
+import com.google.sps.BusyTimes;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects the ids of the attendees named in a request while it is decoded. Names are looked up
+ * with {@code BusyTimes.idOf} of the source the request will be answered from as soon as they are
+ * read, and names it does not know are dropped: those attendees have no events, so they are free
+ * all day and do not change the answer.
+ * Every name read is counted against a limit shared by the whole request.
+ */
+final class AttendeeIds {
+  private final BusyTimes source;
+  private final int maxNames;
+  private int namesRead;
+
+  AttendeeIds(BusyTimes source, int maxNames) {
+    this.source = source;
+    this.maxNames = maxNames;
+  }
+
+  /**
+   * Returns a new list to add the ids of one list of names to.
+   */
+  Builder newList() {
+    return new Builder();
+  }
+
+  /**
+   * The ids of one list of names, such as the mandatory attendees.
+   */
+  final class Builder {
+    private int[] ids = new int[16];
+    private int size;
+
+    /**
+     * Adds the id of {@code name}, if it is known. Throws {@code PayloadTooLargeException} if the
+     * request has named too many attendees.
+     */
+    void add(String name) throws PayloadTooLargeException {
+      if (++namesRead > maxNames) {
+        throw new PayloadTooLargeException("A request can have at most " + maxNames
+            + " attendees");
+      }
+      int id = source.idOf(name);
+      if (id == AttendeeDictionary.UNKNOWN) {
+        return;
+      }
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, 2 * size);
+      }
+      ids[size++] = id;
+    }
+
+    /**
+     * Returns the distinct ids added so far, in ascending order.
+     */
+    int[] build() {
+      Arrays.sort(ids, 0, size);
+      int distinct = 0;
+      for (int i = 0; i < size; i++) {
+        if (distinct == 0 || ids[i] != ids[distinct - 1]) {
+          ids[distinct++] = ids[i];
+        }
+      }
+      return Arrays.copyOf(ids, distinct);
+    }
+  }
+
+  /**
+   * Returns the names of the attendees with the given ids, or no names if {@code ids} is null, as a
+   * view that reads them straight from the dictionary.
+   */
+  static List<String> names(int[] ids) {
+    int[] attendeeIds = ids == null ? new int[0] : ids;
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+    return new AbstractList<String>() {
+      @Override
+      public String get(int index) {
+        return dictionary.nameOf(attendeeIds[index]);
+      }
+
+      @Override
+      public int size() {
+        return attendeeIds.length;
+      }
+    };
+  }
+}
@@ -0,0 +1,98 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.AvailabilityHistogram;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Returns how many of a group of attendees are free during each bucket of the day, so a scheduler
+ * can see the group's availability before choosing a duration. The request is JSON of the form
+ * {@code {"attendees": [...], "bucket_minutes": 15}}. The response holds the counts run-length
+ * encoded as {@code [count, buckets]} pairs.
+ */
+@WebServlet("/availability")
+public class AvailabilityServlet extends HttpServlet {
+  private static final int DEFAULT_BUCKET_MINUTES = 15;
+
+  // Gson is thread-safe, so one instance serves every request.
+  private static final Gson GSON = new Gson();
+
+  // The JSON form of a request.
+  private static final class AvailabilityRequest {
+    private Collection<String> attendees;
+    private Integer bucket_minutes;
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Convert the JSON to an instance of AvailabilityRequest.
+    AvailabilityRequest availabilityRequest;
+    try {
+      availabilityRequest = readRequest(request.getReader());
+    } catch (MalformedRequestException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+    if (availabilityRequest == null || availabilityRequest.attendees == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "attendees are required");
+      return;
+    }
+    int bucketMinutes = availabilityRequest.bucket_minutes == null
+        ? DEFAULT_BUCKET_MINUTES
+        : availabilityRequest.bucket_minutes;
+
+    AvailabilityHistogram histogram;
+    try {
+      histogram = AvailabilityHistogram.of(
+          EventData.BUSY_TIMES, availabilityRequest.attendees, bucketMinutes);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    JsonObject json = new JsonObject();
+    json.addProperty("attendees", histogram.getAttendeeCount());
+    json.addProperty("bucket_minutes", histogram.getBucketMinutes());
+    json.add("runs", GSON.toJsonTree(histogram.toRuns()));
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(json.toString());
+  }
+
+  /**
+   * Reads a request, or returns null if {@code reader} is empty. Throws
+   * {@code MalformedRequestException} if the body is not valid JSON, ends early or holds a value of
+   * the wrong type.
+   */
+  private static AvailabilityRequest readRequest(Reader reader) throws MalformedRequestException {
+    try {
+      return GSON.fromJson(reader, AvailabilityRequest.class);
+    } catch (JsonSyntaxException e) {
+      throw new MalformedRequestException("The request is not valid JSON", e);
+    }
+  }
+}
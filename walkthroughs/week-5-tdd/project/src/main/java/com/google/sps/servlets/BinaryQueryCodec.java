@@ -0,0 +1,185 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.BusyTimes;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.util.Collection;
+
+/**
+ * Reads meeting requests from and writes meeting times to a compact binary form, for services that
+ * call {@code QueryServlet} at high rates. Every number is big-endian, and names are written as by
+ * {@code DataOutput.writeUTF}: a two-byte length followed by the name in modified UTF-8.
+ *
+ * <pre>
+ * request  := duration:int32 count:int32 name* count:int32 name*
+ * response := count:int32 (start:uint16 duration:uint16)*
+ * </pre>
+ *
+ * <p>The first list of names holds the mandatory attendees and the second the optional ones.
+ * Attendees are sent by name rather than by id, since ids are only meaningful within one process.
+ * Names are turned into ids as they are read, as described in {@code AttendeeIds}. The codec keeps
+ * no state between calls, so a single instance is shared by every request.
+ */
+final class BinaryQueryCodec {
+  /** The content type of requests and responses in this form. */
+  static final String CONTENT_TYPE = "application/x-sps-query";
+
+  private final BusyTimes source;
+  private final long maxRequestBytes;
+  private final int maxAttendees;
+
+  /**
+   * Creates a codec for requests answered from {@code source} that rejects requests longer than
+   * {@code maxRequestBytes} bytes or with more than {@code maxAttendees} mandatory and optional
+   * attendees in total.
+   */
+  BinaryQueryCodec(BusyTimes source, long maxRequestBytes, int maxAttendees) {
+    this.source = source;
+    this.maxRequestBytes = maxRequestBytes;
+    this.maxAttendees = maxAttendees;
+  }
+
+  /**
+   * Returns the length of the longest request this codec accepts, in bytes.
+   */
+  long getMaxRequestBytes() {
+    return maxRequestBytes;
+  }
+
+  /**
+   * Reads a request, or returns null if {@code in} is empty. Throws
+   * {@code PayloadTooLargeException} as soon as the request goes over a limit, and
+   * {@code MalformedRequestException} if it is not valid or its duration is not positive.
+   */
+  MeetingRequest readRequest(InputStream in) throws IOException {
+    DataInputStream data =
+        new DataInputStream(new BufferedInputStream(new LimitedInputStream(in, maxRequestBytes)));
+    data.mark(1);
+    if (data.read() == -1) {
+      return null;
+    }
+    data.reset();
+
+    try {
+      int duration = data.readInt();
+      if (duration <= 0) {
+        throw new MalformedRequestException("The duration must be a positive number of minutes");
+      }
+      AttendeeIds attendeeIds = new AttendeeIds(source, maxAttendees);
+      int[] attendees = readAttendeeIds(data, attendeeIds.newList());
+      int[] optionalAttendees = readAttendeeIds(data, attendeeIds.newList());
+      if (data.read() != -1) {
+        throw new MalformedRequestException("Unexpected data after the request");
+      }
+
+      MeetingRequest request = new MeetingRequest(AttendeeIds.names(attendees), duration);
+      for (String optionalAttendee : AttendeeIds.names(optionalAttendees)) {
+        request.addOptionalAttendee(optionalAttendee);
+      }
+      return request;
+    } catch (EOFException e) {
+      throw new MalformedRequestException("The request ended early", e);
+    } catch (UTFDataFormatException e) {
+      throw new MalformedRequestException("A name is not valid modified UTF-8", e);
+    }
+  }
+
+  /**
+   * Reads a count and that many names into {@code ids}, and returns their ids.
+   */
+  private static int[] readAttendeeIds(DataInputStream data, AttendeeIds.Builder ids)
+      throws IOException {
+    int count = data.readInt();
+    if (count < 0) {
+      throw new MalformedRequestException("Negative attendee count: " + count);
+    }
+    for (int i = 0; i < count; i++) {
+      ids.add(data.readUTF());
+    }
+    return ids.build();
+  }
+
+  /**
+   * Writes {@code ranges} as packed start and duration pairs. Both fit in two bytes, since every
+   * range lies within a day.
+   */
+  void writeTimeRanges(Collection<TimeRange> ranges, OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(ranges.size());
+    for (TimeRange range : ranges) {
+      data.writeShort(range.start());
+      data.writeShort(range.duration());
+    }
+    data.flush();
+  }
+
+  /**
+   * Fails once more than a given number of bytes have been read, so that a request without a
+   * {@code Content-Length} cannot grow without bound.
+   */
+  private static final class LimitedInputStream extends FilterInputStream {
+    private long remaining;
+
+    LimitedInputStream(InputStream in, long limit) {
+      super(in);
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        consumed(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int count = super.read(buffer, offset, length);
+      if (count > 0) {
+        consumed(count);
+      }
+      return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      consumed(skipped);
+      return skipped;
+    }
+
+    private void consumed(long count) throws PayloadTooLargeException {
+      remaining -= count;
+      if (remaining < 0) {
+        throw new PayloadTooLargeException("The request is too large");
+      }
+    }
+  }
+}
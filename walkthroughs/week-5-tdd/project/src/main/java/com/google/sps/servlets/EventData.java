@@ -0,0 +1,60 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.BusyTimes;
+import com.google.sps.Event;
+import com.google.sps.Events;
+import com.google.sps.MappedEventFile;
+import com.google.sps.MinuteBitmapIndex;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The events served by the servlets. If the {@code sps.events.file} system property names an event
+ * file written by {@code MappedEventFile.write}, the file is mapped into memory and read from
+ * there. Otherwise the built-in {@code Events.events}, which all fall on one day, are indexed as
+ * minute bitmaps.
+ */
+final class EventData {
+  static final String EVENTS_FILE_PROPERTY = "sps.events.file";
+
+  static final List<Event> EVENTS;
+  static final BusyTimes BUSY_TIMES;
+
+  static {
+    String file = System.getProperty(EVENTS_FILE_PROPERTY);
+    if (file == null) {
+      EVENTS = Arrays.asList(Events.events);
+      BUSY_TIMES = MinuteBitmapIndex.of(EVENTS);
+    } else {
+      try {
+        MappedEventFile events = MappedEventFile.open(Paths.get(file));
+        EVENTS = events.getEvents();
+        BUSY_TIMES = events;
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot open the event file " + file, e);
+      }
+    }
+  }
+
+  private EventData() {
+    // Disallow instances.
+  }
+}
@@ -0,0 +1,192 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.BusyTimes;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.EOFException;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.CharacterCodingException;
+import java.util.Collection;
+
+/**
+ * Reads meeting requests from JSON and writes meeting times back as JSON for {@code QueryServlet}.
+ * The codec keeps no state between calls, so a single instance is shared by every request.
+ *
+ * <p>Requests are parsed one token at a time rather than through Gson's reflective adapter, since
+ * some of them invite thousands of optional attendees. Names are turned into ids as they are read,
+ * as described in {@code AttendeeIds}, and the request is then built from the dictionary's copies
+ * of the names.
+ */
+final class JsonQueryCodec {
+
+  private final BusyTimes source;
+  private final long maxRequestChars;
+  private final int maxAttendees;
+
+  /**
+   * Creates a codec for requests answered from {@code source} that rejects requests longer than
+   * {@code maxRequestChars} characters or with more than {@code maxAttendees} mandatory and
+   * optional attendees in total.
+   */
+  JsonQueryCodec(BusyTimes source, long maxRequestChars, int maxAttendees) {
+    this.source = source;
+    this.maxRequestChars = maxRequestChars;
+    this.maxAttendees = maxAttendees;
+  }
+
+  /**
+   * Returns the length of the longest request this codec accepts, in characters.
+   */
+  long getMaxRequestChars() {
+    return maxRequestChars;
+  }
+
+  /**
+   * Reads a request of the form {@code {"attendees": [...], "optional_attendees": [...],
+   * "duration": 30}}, in any order, or returns null if {@code reader} is empty. Throws
+   * {@code PayloadTooLargeException} as soon as the request goes over a limit, and
+   * {@code MalformedRequestException} if it is not valid or its duration is missing or not
+   * positive.
+   */
+  MeetingRequest readRequest(Reader reader) throws IOException {
+    JsonReader json = new JsonReader(new LimitedReader(reader, maxRequestChars));
+    try {
+      json.peek();
+    } catch (EOFException e) {
+      return null;
+    }
+
+    try {
+      return readRequest(json);
+    } catch (EOFException e) {
+      throw new MalformedRequestException("The request ended early", e);
+    } catch (MalformedJsonException | CharacterCodingException e) {
+      throw new MalformedRequestException("The request is not valid JSON", e);
+    } catch (IllegalStateException | NumberFormatException e) {
+      // Gson reports a value of the wrong type this way.
+      throw new MalformedRequestException(e.getMessage(), e);
+    }
+  }
+
+  private MeetingRequest readRequest(JsonReader json) throws IOException {
+    int[] attendees = null;
+    int[] optionalAttendees = null;
+    long duration = 0;
+    AttendeeIds attendeeIds = new AttendeeIds(source, maxAttendees);
+    json.beginObject();
+    while (json.hasNext()) {
+      switch (json.nextName()) {
+        case "attendees":
+          attendees = readAttendeeIds(json, attendeeIds.newList());
+          break;
+        case "optional_attendees":
+          optionalAttendees = readAttendeeIds(json, attendeeIds.newList());
+          break;
+        case "duration":
+          duration = json.nextLong();
+          break;
+        default:
+          json.skipValue();
+      }
+    }
+    json.endObject();
+    if (duration <= 0) {
+      throw new MalformedRequestException("The duration must be a positive number of minutes");
+    }
+
+    MeetingRequest request = new MeetingRequest(AttendeeIds.names(attendees), duration);
+    for (String optionalAttendee : AttendeeIds.names(optionalAttendees)) {
+      request.addOptionalAttendee(optionalAttendee);
+    }
+    return request;
+  }
+
+  /**
+   * Reads an array of names into {@code ids} and returns their ids.
+   */
+  private static int[] readAttendeeIds(JsonReader json, AttendeeIds.Builder ids)
+      throws IOException {
+    json.beginArray();
+    while (json.hasNext()) {
+      ids.add(json.nextString());
+    }
+    json.endArray();
+    return ids.build();
+  }
+
+  /**
+   * Writes {@code ranges} as an array of {@code {"start": ..., "duration": ...}} objects, the same
+   * form that {@code Gson} gives a {@code TimeRange}, without building the whole document first.
+   */
+  void writeTimeRanges(Collection<TimeRange> ranges, Writer writer) throws IOException {
+    JsonWriter json = new JsonWriter(writer);
+    json.beginArray();
+    for (TimeRange range : ranges) {
+      json.beginObject();
+      json.name("start").value(range.start());
+      json.name("duration").value(range.duration());
+      json.endObject();
+    }
+    json.endArray();
+    json.flush();
+  }
+
+  /**
+   * Fails once more than a given number of characters have been read, so that a request without a
+   * {@code Content-Length} cannot grow without bound.
+   */
+  private static final class LimitedReader extends FilterReader {
+    private long remaining;
+
+    LimitedReader(Reader in, long limit) {
+      super(in);
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int c = super.read();
+      if (c != -1) {
+        consumed(1);
+      }
+      return c;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+      int count = super.read(buffer, offset, length);
+      if (count > 0) {
+        consumed(count);
+      }
+      return count;
+    }
+
+    private void consumed(long count) throws PayloadTooLargeException {
+      remaining -= count;
+      if (remaining < 0) {
+        throw new PayloadTooLargeException("The request is too large");
+      }
+    }
+  }
+}
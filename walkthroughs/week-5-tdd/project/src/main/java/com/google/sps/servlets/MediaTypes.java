@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.servlets;
+
+/**
+ * Reads the media types in {@code Content-Type} and {@code Accept} headers. Types are compared
+ * without their parameters and regardless of case, and {@code Accept} ranges are weighed by their
+ * {@code q} values as described in RFC 7231.
+ */
+final class MediaTypes {
+  private MediaTypes() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns true if {@code contentType}, with any parameters such as {@code charset}, names
+   * {@code mediaType}.
+   */
+  static boolean is(String contentType, String mediaType) {
+    return contentType != null && typeOf(contentType).equalsIgnoreCase(mediaType);
+  }
+
+  /**
+   * Returns the quality that {@code accept} gives {@code mediaType}, from 0 for not acceptable up
+   * to 1. The most specific range that matches the type decides, so {@code text/html} outweighs
+   * {@code text/*}, which outweighs the range of every type. A type that no range matches gets 0.
+   */
+  static double quality(String accept, String mediaType) {
+    String subtypeWildcard = mediaType.substring(0, mediaType.indexOf('/') + 1) + "*";
+    double quality = 0;
+    int bestSpecificity = 0;
+    for (String range : accept.split(",")) {
+      String type = typeOf(range);
+      int specificity;
+      if (type.equalsIgnoreCase(mediaType)) {
+        specificity = 3;
+      } else if (type.equalsIgnoreCase(subtypeWildcard)) {
+        specificity = 2;
+      } else if (type.equals("*/*")) {
+        specificity = 1;
+      } else {
+        continue;
+      }
+      if (specificity > bestSpecificity) {
+        bestSpecificity = specificity;
+        quality = qualityOf(range);
+      }
+    }
+    return quality;
+  }
+
+  // Returns the type of a media type or range, without its parameters.
+  private static String typeOf(String mediaType) {
+    int parameters = mediaType.indexOf(';');
+    return (parameters < 0 ? mediaType : mediaType.substring(0, parameters)).trim();
+  }
+
+  // Returns the q parameter of a media range, or 1 if it has none or it cannot be read.
+  private static double qualityOf(String range) {
+    String[] parameters = range.split(";");
+    for (int i = 1; i < parameters.length; i++) {
+      String parameter = parameters[i].trim();
+      if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+        try {
+          double quality = Double.parseDouble(parameter.substring(2).trim());
+          return quality >= 0 && quality <= 1 ? quality : 1;
+        } catch (NumberFormatException e) {
+          return 1;
+        }
+      }
+    }
+    return 1;
+  }
+}
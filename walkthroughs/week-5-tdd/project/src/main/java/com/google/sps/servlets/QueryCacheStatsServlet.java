@@ -0,0 +1,42 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.QueryCache;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@WebServlet("/query-cache-stats")
+public class QueryCacheStatsServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    QueryCache cache = QueryServlet.CACHE;
+    JsonObject stats = new JsonObject();
+    stats.addProperty("hits", cache.getHits());
+    stats.addProperty("misses", cache.getMisses());
+    stats.addProperty("evictions", cache.getEvictions());
+    stats.addProperty("hitRate", cache.getHitRate());
+    stats.addProperty("size", cache.size());
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(stats.toString());
+  }
+}
@@ -14,38 +14,275 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
-import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
+import com.google.sps.QueryCache;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.AsyncContext;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-@WebServlet("/query")
+/**
+ * Answers meeting requests. By default each request is answered on the container thread that
+ * received it. If the {@code sps.query.async} system property is true, requests are instead handed
+ * to a separate pool of {@code sps.query.threads} threads (one per processor by default) with room
+ * for {@code sps.query.queue} waiting requests (64 by default), so that slow queries cannot take
+ * every container thread. When the queue is full, requests fail straight away with 503 and a
+ * {@code Retry-After} header, and so do requests that are still waiting after
+ * {@code sps.query.queue.millis} milliseconds or when the servlet is taken out of service. The
+ * limit only applies while a request waits: once a thread has started on it, it runs to the end.
+ */
+@WebServlet(urlPatterns = "/query", asyncSupported = true)
 public class QueryServlet extends HttpServlet {
+  static final String ASYNC_PROPERTY = "sps.query.async";
+  static final String THREADS_PROPERTY = "sps.query.threads";
+  static final String QUEUE_PROPERTY = "sps.query.queue";
+  static final String QUEUE_MILLIS_PROPERTY = "sps.query.queue.millis";
+
+  // How long a rejected client should wait before trying again, in seconds.
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  // The time a typical query takes in async mode. A request may wait behind a full queue that every
+  // thread works through, so by default it may wait this much for each request that can be ahead
+  // of it on its thread, and once more for itself.
+  private static final long QUERY_MILLIS = 250;
+
+  // How long destroy() waits for the queries that are already running.
+  private static final long SHUTDOWN_MILLIS = 5000;
+
+  // Clients often repeat the same requests, so keep the most recent results. The statistics are
+  // served by QueryCacheStatsServlet. The cache also holds the FindMeetingQuery that answers the
+  // requests, which keeps no state between queries and is shared by every request.
+  static final QueryCache CACHE = new QueryCache(1024);
+
+  // The codecs are thread-safe, so they are set up once rather than on every request. The limits
+  // leave room for all-hands invites with tens of thousands of attendees.
+  private static final JsonQueryCodec JSON =
+      new JsonQueryCodec(EventData.BUSY_TIMES, 4 << 20, 50000);
+  private static final BinaryQueryCodec BINARY =
+      new BinaryQueryCodec(EventData.BUSY_TIMES, 4 << 20, 50000);
+
+  // The status for requests that are too large, which HttpServletResponse has no constant for.
+  private static final int SC_PAYLOAD_TOO_LARGE = 413;
+
+  // The pool that answers requests in async mode, or null if requests are answered on the
+  // container thread.
+  private ThreadPoolExecutor executor;
+
+  // Turns away async requests that are still queued when their wait runs out.
+  private ScheduledThreadPoolExecutor deadlines;
+
+  // How long an async request may wait in the queue.
+  private long queueMillis;
+
+  @Override
+  public void init() {
+    if (Boolean.getBoolean(ASYNC_PROPERTY)) {
+      int threads =
+          Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+      int queue = Integer.getInteger(QUEUE_PROPERTY, 64);
+      executor = newExecutor(threads, queue);
+      queueMillis = Long.getLong(QUEUE_MILLIS_PROPERTY, (queue / threads + 1) * QUERY_MILLIS);
+      deadlines = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "query-deadlines");
+        thread.setDaemon(true);
+        return thread;
+      });
+      deadlines.setRemoveOnCancelPolicy(true);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (executor == null) {
+      return;
+    }
+    // Turn away the requests that have not started, so that none is left without a response, and
+    // give the running ones a moment to finish.
+    deadlines.shutdownNow();
+    for (Runnable task : executor.shutdownNow()) {
+      ((QueryTask) task).reject();
+    }
+    try {
+      executor.awaitTermination(SHUTDOWN_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+    if (executor == null) {
+      answer(request, response);
+      return;
+    }
 
-    // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    // The container's timeout would also cut short requests that a thread is already answering, so
+    // it is turned off and the wait in the queue is limited here instead.
+    AsyncContext async = request.startAsync();
+    async.setTimeout(0);
+    QueryTask task = new QueryTask(async);
+    try {
+      executor.execute(task);
+      task.deadline = deadlines.schedule(task::reject, queueMillis, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      task.reject();
+    }
+  }
+
+  /**
+   * One request in async mode. Whichever comes first of a worker starting the task, the end of its
+   * wait in the queue and a rejection owns the response, so a request is never answered twice.
+   * Once a worker has started, the task runs to completion.
+   */
+  private final class QueryTask implements Runnable {
+    private final AsyncContext async;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    // Rejects the task if it is still queued when its wait runs out. Cancelled once it starts.
+    private volatile ScheduledFuture<?> deadline;
+
+    QueryTask(AsyncContext async) {
+      this.async = async;
+    }
 
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    @Override
+    public void run() {
+      if (!claimed.compareAndSet(false, true)) {
+        // The request waited too long in the queue and has been answered already.
+        return;
+      }
+      ScheduledFuture<?> pending = deadline;
+      if (pending != null) {
+        pending.cancel(false);
+      }
+      HttpServletResponse response = (HttpServletResponse) async.getResponse();
+      try {
+        answer((HttpServletRequest) async.getRequest(), response);
+      } catch (IOException | RuntimeException e) {
+        log("Failed to answer a meeting request", e);
+        sendServerError(response);
+      } finally {
+        async.complete();
+      }
+    }
+
+    /**
+     * Answers with 503 and a {@code Retry-After} header, unless a worker has started the task.
+     */
+    void reject() {
+      if (!claimed.compareAndSet(false, true)) {
+        return;
+      }
+      HttpServletResponse response = (HttpServletResponse) async.getResponse();
+      try {
+        response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many queries");
+      } catch (IOException e) {
+        // The client has gone away, so there is no one to tell.
+      } finally {
+        async.complete();
+      }
+    }
+  }
+
+  /**
+   * Returns a pool of {@code threads} threads that queues at most {@code queue} requests and
+   * rejects the rest.
+   */
+  private static ThreadPoolExecutor newExecutor(int threads, int queue) {
+    AtomicInteger count = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "query-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queue), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+  }
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+  private static void sendServerError(HttpServletResponse response) {
+    if (response.isCommitted()) {
+      return;
+    }
+    try {
+      response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    } catch (IOException e) {
+      // The client has gone away, so there is no one to tell.
+    }
+  }
+
+  /**
+   * Answers a meeting request. Requests sent with the content type
+   * {@code BinaryQueryCodec.CONTENT_TYPE} are read in that form, and any other request is read as
+   * JSON. The form of the response is chosen by {@code prefersBinary}.
+   */
+  private static void answer(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    boolean binaryRequest = MediaTypes.is(request.getContentType(), BinaryQueryCodec.CONTENT_TYPE);
+    boolean binaryResponse = prefersBinary(request.getHeader("Accept"), binaryRequest);
+
+    // Reject requests that declare a length over the limit before reading any of them.
+    long maxLength = binaryRequest ? BINARY.getMaxRequestBytes() : JSON.getMaxRequestChars();
+    if (request.getContentLengthLong() > maxLength) {
+      response.sendError(SC_PAYLOAD_TOO_LARGE, "The request is too large");
+      return;
+    }
+
+    // Convert the request to an instance of MeetingRequest.
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = binaryRequest
+          ? BINARY.readRequest(request.getInputStream())
+          : JSON.readRequest(request.getReader());
+    } catch (PayloadTooLargeException e) {
+      response.sendError(SC_PAYLOAD_TOO_LARGE, e.getMessage());
+      return;
+    } catch (MalformedRequestException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "A meeting request is required");
+      return;
+    }
+
+    // Find the possible meeting times, or reuse them if the same request was answered before.
+    Collection<TimeRange> answer = CACHE.query(EventData.BUSY_TIMES, meetingRequest);
+
+    // Stream the times back, without building the whole response first.
+    if (binaryResponse) {
+      response.setContentType(BinaryQueryCodec.CONTENT_TYPE);
+      BINARY.writeTimeRanges(answer, response.getOutputStream());
+    } else {
+      response.setContentType("application/json");
+      JSON.writeTimeRanges(answer, response.getWriter());
+    }
+  }
 
-    // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+  /**
+   * Returns true if the response should be binary: if {@code accept} weighs the binary form above
+   * JSON, or weighs them the same and the request was binary. Without an {@code Accept} header the
+   * response takes the form of the request.
+   */
+  static boolean prefersBinary(String accept, boolean binaryRequest) {
+    if (accept == null) {
+      return binaryRequest;
+    }
+    double binary = MediaTypes.quality(accept, BinaryQueryCodec.CONTENT_TYPE);
+    double json = MediaTypes.quality(accept, "application/json");
+    return binary > json || (binary == json && binary > 0 && binaryRequest);
   }
 }
@@ -0,0 +1,81 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeDictionaryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void idsAreDenseAndStable() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(1, dictionary.intern(PERSON_B));
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(2, dictionary.size());
+    Assert.assertEquals(PERSON_B, dictionary.nameOf(1));
+  }
+
+  @Test
+  public void unknownNamesAreNotInterned() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_A);
+
+    Assert.assertEquals(AttendeeDictionary.UNKNOWN, dictionary.idOf(PERSON_B));
+    Assert.assertEquals(1, dictionary.size());
+  }
+
+  @Test
+  public void eventIdsAreSortedAndMatchTheMask() {
+    Event event = new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C, PERSON_A));
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+
+    int[] expected = {dictionary.idOf(PERSON_A), dictionary.idOf(PERSON_C)};
+    Arrays.sort(expected);
+    Assert.assertArrayEquals(expected, event.getAttendeeIds());
+
+    Assert.assertTrue(AttendeeMask.of(Arrays.asList(PERSON_C), dictionary)
+        .intersects(event.getAttendeeIds()));
+    Assert.assertFalse(AttendeeMask.of(Arrays.asList(PERSON_B, "Nobody"), dictionary)
+        .intersects(event.getAttendeeIds()));
+  }
+
+  @Test
+  public void maskIsSizedByTheRequestedAttendees() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    for (int i = 0; i < 1000; i++) {
+      dictionary.intern("Person " + i);
+    }
+
+    AttendeeMask mask = AttendeeMask.of(
+        Arrays.asList("Person 900", "Nobody", "Person 7", "Person 900"), dictionary);
+
+    Assert.assertEquals(2, mask.size());
+    Assert.assertEquals(0, mask.slotOf(dictionary.idOf("Person 7")));
+    Assert.assertEquals(1, mask.slotOf(dictionary.idOf("Person 900")));
+    Assert.assertEquals(-1, mask.slotOf(dictionary.idOf("Person 8")));
+    Assert.assertFalse(mask.contains(AttendeeDictionary.UNKNOWN));
+  }
+}
@@ -0,0 +1,95 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityHistogramTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  @Test
+  public void countsFreeAttendeesPerBucket() {
+    // Events  :       |--A--|
+    //                    |-A-|--B--|
+    // Free    : |--3--|--2--|--1--|--2--|---3---|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0830AM, 45),
+            Arrays.asList(PERSON_B)));
+
+    AvailabilityHistogram histogram = AvailabilityHistogram.of(AttendeeIndex.of(events),
+        Arrays.asList(PERSON_A, PERSON_B, PERSON_C), 30);
+
+    Assert.assertEquals(3, histogram.getAttendeeCount());
+    Assert.assertEquals(48, histogram.getBucketCount());
+    int first = TIME_0800AM / 30;
+    int[][] expected = {{3, first}, {2, 1}, {1, 1}, {2, 1}, {3, 48 - first - 3}};
+    Assert.assertArrayEquals(expected, histogram.toRuns());
+  }
+
+  @Test
+  public void matchesMinuteByMinuteCount() {
+    Random random = new Random(5);
+    String[] people = {"Person 0", "Person 1", "Person 2", "Person 3", "Person 4"};
+    for (int trial = 0; trial < 100; trial++) {
+      List<Event> events = new ArrayList<>();
+      for (int i = random.nextInt(15); i > 0; i--) {
+        int start = random.nextInt(TimeRange.END_OF_DAY);
+        int duration = 1 + random.nextInt(TimeRange.END_OF_DAY + 1 - start);
+        events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+            Arrays.asList(people[random.nextInt(people.length)])));
+      }
+      int bucketMinutes = 1 + random.nextInt(100);
+
+      AvailabilityHistogram histogram =
+          AvailabilityHistogram.of(AttendeeIndex.of(events), Arrays.asList(people), bucketMinutes);
+
+      for (int bucket = 0; bucket < histogram.getBucketCount(); bucket++) {
+        TimeRange range = TimeRange.fromStartEnd(bucket * bucketMinutes,
+            Math.min((bucket + 1) * bucketMinutes, TimeRange.END_OF_DAY + 1), false);
+        int free = 0;
+        for (String person : people) {
+          boolean busy = false;
+          for (Event event : events) {
+            busy |= event.getAttendees().contains(person) && event.getWhen().overlaps(range);
+          }
+          free += busy ? 0 : 1;
+        }
+        Assert.assertEquals("trial " + trial, free, histogram.freeCount(bucket));
+      }
+    }
+  }
+}
@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BatchSchedulerTest {
+  private static final String CANDIDATE = "Candidate";
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+  private static final String PERSON_D = "Person D";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+  private static final Duration NO_LIMIT = Duration.ofMinutes(1);
+
+  // The candidate is only free from 9am to 12pm, and Person A is busy until 9:30am.
+  private static final Collection<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+          Arrays.asList(CANDIDATE)),
+      new Event("Event 2", TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true),
+          Arrays.asList(CANDIDATE)),
+      new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+          Arrays.asList(PERSON_A)));
+
+  private BatchScheduler scheduler;
+  private AttendeeIndex index;
+
+  @Before
+  public void setUp() {
+    scheduler = new BatchScheduler(15);
+    index = AttendeeIndex.of(EVENTS);
+  }
+
+  private static MeetingRequest interview(String interviewer) {
+    return new MeetingRequest(Arrays.asList(CANDIDATE, interviewer), DURATION_1_HOUR);
+  }
+
+  @Test
+  public void interviewLoopFillsTheFreeTime() {
+    // Three one-hour interviews only fit from 9am to 12pm on the hour. Person A's interview is
+    // placed first since it has the fewest start times, and its starts before 10am leave no room
+    // for the other two.
+    List<MeetingRequest> requests =
+        Arrays.asList(interview(PERSON_A), interview(PERSON_B), interview(PERSON_C));
+
+    BatchScheduler.Schedule actual = scheduler.schedule(index, requests, NO_LIMIT);
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            TimeRange.fromStartEnd(TIME_1100AM, TIME_1200PM, false));
+
+    Assert.assertTrue(actual.isFound());
+    Assert.assertFalse(actual.isTimedOut());
+    Assert.assertEquals(expected, actual.getSlots());
+  }
+
+  @Test
+  public void parallelSearchMatchesSequentialSearch() {
+    List<MeetingRequest> requests = Arrays.asList(interview(PERSON_A), interview(PERSON_B),
+        new MeetingRequest(Arrays.asList(CANDIDATE, PERSON_C), 30),
+        new MeetingRequest(Arrays.asList(CANDIDATE, PERSON_D), 30));
+
+    ForkJoinPool sequential = new ForkJoinPool(1);
+    ForkJoinPool parallel = new ForkJoinPool(4);
+    try {
+      Assert.assertEquals(scheduler.schedule(index, requests, NO_LIMIT, sequential).getSlots(),
+          scheduler.schedule(index, requests, NO_LIMIT, parallel).getSlots());
+    } finally {
+      sequential.shutdown();
+      parallel.shutdown();
+    }
+  }
+
+  @Test
+  public void noScheduleWhenMeetingsDoNotFit() {
+    List<MeetingRequest> requests = Arrays.asList(interview(PERSON_A), interview(PERSON_B),
+        interview(PERSON_C), interview(PERSON_D));
+
+    BatchScheduler.Schedule actual = scheduler.schedule(index, requests, NO_LIMIT);
+
+    Assert.assertFalse(actual.isFound());
+    Assert.assertFalse(actual.isTimedOut());
+    Assert.assertEquals(Collections.emptyList(), actual.getSlots());
+  }
+
+  @Test
+  public void searchStopsWhenTheBudgetRunsOut() {
+    List<MeetingRequest> requests =
+        Arrays.asList(interview(PERSON_A), interview(PERSON_B), interview(PERSON_C));
+
+    BatchScheduler.Schedule actual = scheduler.schedule(index, requests, Duration.ZERO);
+
+    Assert.assertFalse(actual.isFound());
+    Assert.assertTrue(actual.isTimedOut());
+  }
+
+  @Test
+  public void emptyBatchIsScheduled() {
+    BatchScheduler.Schedule actual =
+        scheduler.schedule(index, Collections.<MeetingRequest>emptyList(), NO_LIMIT);
+
+    Assert.assertTrue(actual.isFound());
+    Assert.assertEquals(Collections.emptyList(), actual.getSlots());
+  }
+}
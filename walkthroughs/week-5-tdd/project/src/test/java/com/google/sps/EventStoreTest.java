@@ -0,0 +1,110 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+
+  @Test
+  public void removingAnEventFreesOnlyItsTime() {
+    // Events  : |--A--|
+    //               |--A--|
+    // Remove  :     |--A--|
+    // Busy A  : |--A--|
+
+    Event first = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A));
+    Event second = new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_0930AM, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    EventStore store = new EventStore(Arrays.asList(first, second));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0930AM, false)),
+        store.getBusyRanges(PERSON_A));
+
+    Assert.assertTrue(store.removeEvent(second));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false)),
+        store.getBusyRanges(PERSON_A));
+    Assert.assertEquals(Arrays.asList(), store.getBusyRanges(PERSON_B));
+  }
+
+  @Test
+  public void removingAnUnknownEventChangesNothing() {
+    Event event = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A));
+    EventStore store = new EventStore();
+    long version = store.getVersion();
+
+    Assert.assertFalse(store.removeEvent(event));
+    Assert.assertEquals(version, store.getVersion());
+
+    store.addEvent(event);
+    Assert.assertNotEquals(version, store.getVersion());
+  }
+
+  @Test
+  public void queriesSeeEveryEdit() {
+    // Add and remove random events, and check after every edit that the store answers the same
+    // queries as an index built from scratch.
+    Random random = new Random(1);
+    String[] people = {"Person 0", "Person 1", "Person 2", "Person 3", "Person 4"};
+    FindMeetingQuery query = new FindMeetingQuery();
+    EventStore store = new EventStore();
+    List<Event> events = new ArrayList<>();
+
+    for (int edit = 0; edit < 300; edit++) {
+      if (!events.isEmpty() && random.nextInt(3) == 0) {
+        Event event = events.remove(random.nextInt(events.size()));
+        Assert.assertTrue(store.removeEvent(event));
+      } else {
+        int start = random.nextInt(TimeRange.END_OF_DAY);
+        int end = start + 1 + random.nextInt(TimeRange.END_OF_DAY + 1 - start);
+        Event event = new Event("Event " + edit, TimeRange.fromStartEnd(start, end, false),
+            Arrays.asList(people[random.nextInt(people.length)],
+                people[random.nextInt(people.length)]));
+        events.add(event);
+        store.addEvent(event);
+      }
+
+      AttendeeIndex index = AttendeeIndex.of(events);
+      for (String person : people) {
+        Assert.assertEquals(index.getBusyRanges(person), store.getBusyRanges(person));
+      }
+
+      MeetingRequest request = new MeetingRequest(Arrays.asList(people[0], people[1]), 30);
+      request.addOptionalAttendee(people[2]);
+      request.addOptionalAttendee(people[3]);
+      Assert.assertEquals(query.query(index, request), query.query(store, request));
+    }
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final TimeRange MORNING = TimeRange.fromStartDuration(540, 30);
+  private static final TimeRange AFTERNOON = TimeRange.fromStartDuration(840, 30);
+
+  @Test
+  public void attendeeOrderAndDuplicatesDoNotMatter() {
+    Event a = new Event("Standup", MORNING, Arrays.asList(PERSON_A, PERSON_B));
+    Event b = new Event("Standup", MORNING, Arrays.asList(PERSON_B, PERSON_A, PERSON_B));
+
+    Assert.assertEquals(a, b);
+    Assert.assertEquals(a.hashCode(), b.hashCode());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_B)), b.getAttendees());
+  }
+
+  @Test
+  public void eventsWithTheSameTitleHashDifferently() {
+    Event morning = new Event("Standup", MORNING, Arrays.asList(PERSON_A));
+    Event afternoon = new Event("Standup", AFTERNOON, Arrays.asList(PERSON_A));
+    Event other = new Event("Standup", MORNING, Arrays.asList(PERSON_B));
+
+    Assert.assertNotEquals(morning, afternoon);
+    Assert.assertNotEquals(morning.hashCode(), afternoon.hashCode());
+    Assert.assertNotEquals(morning.hashCode(), other.hashCode());
+  }
+
+  @Test
+  public void attendeesAreReadOnly() {
+    Set<String> attendees = new Event("Standup", MORNING, Arrays.asList(PERSON_A)).getAttendees();
+
+    Assert.assertTrue(attendees.contains(PERSON_A));
+    Assert.assertFalse(attendees.contains(PERSON_B));
+    try {
+      attendees.add(PERSON_B);
+      Assert.fail();
+    } catch (UnsupportedOperationException expected) {
+      // The view cannot change the event.
+    }
+  }
+
+  @Test
+  public void attendeesViewIsShared() {
+    Event event = new Event("Standup", MORNING, Arrays.asList(PERSON_A));
+
+    Assert.assertSame(event.getAttendees(), event.getAttendees());
+  }
+
+  @Test
+  public void jsonFormIsUnchanged() {
+    Event event = new Event("Standup", MORNING, Arrays.asList(PERSON_B, PERSON_A));
+
+    Assert.assertEquals(
+        "{\"title\":\"Standup\",\"when\":{\"start\":540,\"duration\":30},"
+            + "\"attendees\":[\"Person A\",\"Person B\"]}",
+        new Gson().toJson(event));
+  }
+}
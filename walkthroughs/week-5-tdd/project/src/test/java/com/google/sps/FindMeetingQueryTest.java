@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -44,6 +45,7 @@ public final class FindMeetingQueryTest {
   private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
   private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
   private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1030AM = TimeRange.getTimeInMinutes(10, 30);
   private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 00);
 
   private static final int DURATION_15_MINUTES = 15;
@@ -179,6 +181,36 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
+  @Test
+  public void unsortedChainOfOverlappingEvents() {
+    // Have events given out of order whose times chain together into one busy block. We should
+    // see two options.
+    //
+    // Events  :       |--A--|
+    //                     |--B--|
+    //                         |--A--|
+    // Day     : |-------------------------|
+    // Options : |--1--|             |--2--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0930AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            TimeRange.fromStartEnd(TIME_1030AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
   @Test
   public void doubleBookedPeople() {
     // Have one person, but have them registered to attend two events at the same time.
@@ -539,5 +571,139 @@ public final class FindMeetingQueryTest {
 
     Assert.assertEquals(expected, actual);
   }
-}
 
+  @Test
+  public void queryAllReturnsResultsInRequestOrder() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    String[] people = {"Amelia", "Ava", "Emma", "Isabella", "James", "Liam", "Logan", "Noah"};
+
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      MeetingRequest request = new MeetingRequest(
+          Arrays.asList(people[i % people.length], people[(i / 3) % people.length]), 15 + i % 90);
+      request.addOptionalAttendee(people[(i / 7) % people.length]);
+      requests.add(request);
+    }
+
+    List<Collection<TimeRange>> actual = query.queryAll(events, requests);
+
+    Assert.assertEquals(requests.size(), actual.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Assert.assertEquals(query.query(events, requests.get(i)), actual.get(i));
+    }
+  }
+
+  @Test
+  public void bestOptionsRankOptionalAttendeesBeforeStartTime() {
+    // Events  :       |--A--|
+    //           |---B---|
+    // Day     : |-----------------------------|
+    // Options : |--2--|     |--------1--------|
+    // Only option 1 works for optional attendee B, so it comes first.
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true),
+            TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false)),
+        query.query(events, request, 2));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true)),
+        query.query(events, request, 1));
+  }
+
+  @Test
+  public void streamMatchesQuery() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    String[] people = {"Amelia", "Ava", "Emma", "Isabella", "James", "Liam", "Logan", "Noah"};
+
+    for (int i = 0; i < 200; i++) {
+      MeetingRequest request = new MeetingRequest(
+          Arrays.asList(people[i % people.length], people[(i / 3) % people.length]), 15 + i % 90);
+      for (int j = 0; j < i % 4; j++) {
+        request.addOptionalAttendee(people[(i / 7 + 3 * j) % people.length]);
+      }
+
+      Assert.assertEquals(new ArrayList<>(query.query(events, request)),
+          query.stream(events, request).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void streamStopsAtTheFirstOption() {
+    // Options : |--1--|     |--2--|     |--3--|
+    // Only the first option is asked for, and every optional attendee can attend it.
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false)),
+        query.stream(events, request).limit(1).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void resourcesArePairedWithTheTimesTheyAreFree() {
+    // Events  :       |--A--|     |--Room 1--|
+    // Room 1  : |-----|     |-----|          |-----|
+    // Room 2  : |-----|     |----------------------|
+    // Room 3 is free all day but too small for two people.
+
+    Resource room1 = new Resource("Room 1", 2);
+    Resource room2 = new Resource("Room 2", 10);
+    Resource room3 = new Resource("Room 3", 1);
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_C, room1.getName())));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    List<ResourceSlot> actual = query.query(events, request, Arrays.asList(room1, room2, room3));
+    List<ResourceSlot> expected = Arrays.asList(
+        new ResourceSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(room1, room2)),
+        new ResourceSlot(TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            Arrays.asList(room1)),
+        new ResourceSlot(TimeRange.fromStartEnd(TIME_0830AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(room2)),
+        new ResourceSlot(TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(room1)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void resourceGapsShorterThanTheMeetingAreDropped() {
+    // Room 1 is only free for 30 minutes in the morning, which is too short for an hour-long
+    // meeting.
+    Resource room1 = new Resource("Room 1", 2);
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(room1.getName())),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(room1.getName())));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+
+    Assert.assertEquals(Collections.emptyList(),
+        query.query(events, request, Arrays.asList(room1)));
+  }
+}
@@ -0,0 +1,141 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HorizonQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // The first day of the year 2020 and the two days after it.
+  private static final long DAY_1 =
+      EpochRange.toEpochMinute(Instant.parse("2020-01-01T00:00:00Z"));
+  private static final long DAY_2 = DAY_1 + EpochRange.MINUTES_PER_DAY;
+  private static final long DAY_3 = DAY_2 + EpochRange.MINUTES_PER_DAY;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final EpochRange WORK_DAY =
+      EpochRange.fromStartEnd(TIME_0900AM, TIME_0500PM, false);
+
+  private static final int DURATION_1_HOUR = 60;
+
+  private HorizonQuery query;
+
+  @Before
+  public void setUp() {
+    query = new HorizonQuery();
+  }
+
+  private static DatedEvent workDay(long day, String person) {
+    return new DatedEvent("Work", EpochRange.fromStartDuration(day + WORK_DAY.start(),
+        WORK_DAY.duration()), Arrays.asList(person));
+  }
+
+  @Test
+  public void freeTimeCrossesMidnight() {
+    // Events  :    |-A-|          |-A-|          |-A-|
+    // Window  : |--------------|--------------|--------------|
+    // Options : |--|   |----------|   |----------|   |-------|
+
+    Collection<DatedEvent> events =
+        Arrays.asList(workDay(DAY_1, PERSON_A), workDay(DAY_2, PERSON_A), workDay(DAY_3, PERSON_A));
+    EpochRange window = EpochRange.fromStartEnd(DAY_1, DAY_3 + EpochRange.MINUTES_PER_DAY, false);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<EpochRange> actual = query.query(events, request, window);
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(DAY_1, DAY_1 + TIME_0900AM, false),
+        EpochRange.fromStartEnd(DAY_1 + TIME_0500PM, DAY_2 + TIME_0900AM, false),
+        EpochRange.fromStartEnd(DAY_2 + TIME_0500PM, DAY_3 + TIME_0900AM, false),
+        EpochRange.fromStartEnd(DAY_3 + TIME_0500PM, window.end(), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesAreConsideredAcrossDays() {
+    // Person B is only free on the evening of the first day, so only that option is returned.
+    Collection<DatedEvent> events = Arrays.asList(workDay(DAY_1, PERSON_A),
+        workDay(DAY_2, PERSON_A),
+        new DatedEvent("Trip", EpochRange.fromStartEnd(DAY_1, DAY_1 + TIME_0500PM, false),
+            Arrays.asList(PERSON_B)),
+        new DatedEvent("Trip", EpochRange.fromStartEnd(DAY_2, DAY_3, false),
+            Arrays.asList(PERSON_B)));
+    EpochRange window = EpochRange.fromStartEnd(DAY_1, DAY_3, false);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<EpochRange> actual = query.query(events, request, window);
+    List<EpochRange> expected =
+        Arrays.asList(EpochRange.fromStartEnd(DAY_1 + TIME_0500PM, DAY_2, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void pagesCoverEveryResult() {
+    Collection<DatedEvent> events =
+        Arrays.asList(workDay(DAY_1, PERSON_A), workDay(DAY_2, PERSON_A), workDay(DAY_3, PERSON_A));
+    AttendeeIndex index = AttendeeIndex.ofDatedEvents(events);
+    EpochRange window = EpochRange.fromStartEnd(DAY_1, DAY_3 + EpochRange.MINUTES_PER_DAY, false);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    HorizonQuery.Page first = query.query(index, request, window, window.start(), 3);
+    Assert.assertEquals(3, first.getRanges().size());
+    Assert.assertTrue(first.hasNextPage());
+
+    HorizonQuery.Page second = query.query(index, request, window, first.getNextPageStart(), 3);
+    Assert.assertEquals(
+        Arrays.asList(EpochRange.fromStartEnd(DAY_3 + TIME_0500PM, window.end(), false)),
+        second.getRanges());
+    Assert.assertFalse(second.hasNextPage());
+  }
+
+  @Test
+  public void singleDayMatchesFindMeetingQuery() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    Collection<DatedEvent> datedEvents = Arrays.asList(Events.events).stream()
+        .map(event -> DatedEvent.onDay(DAY_2, event))
+        .collect(Collectors.toList());
+    EpochRange window = EpochRange.fromStartDuration(DAY_2, EpochRange.MINUTES_PER_DAY);
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Amelia", "Ava"), 30);
+    request.addOptionalAttendee("Emma");
+    request.addOptionalAttendee("Logan");
+
+    Collection<TimeRange> expected = new FindMeetingQuery().query(events, request);
+    List<EpochRange> actual = query.query(datedEvents, request, window);
+
+    Assert.assertEquals(expected.size(), actual.size());
+    int i = 0;
+    for (TimeRange range : expected) {
+      Assert.assertEquals(EpochRange.onDay(DAY_2, range), actual.get(i++));
+    }
+  }
+}
@@ -0,0 +1,104 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MappedEventFileTest {
+  private static final String[] PEOPLE =
+      {"Amelia", "Ava", "Emma", "Isabella", "James", "Liam", "Logan", "Noah", "Nobody"};
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private MappedEventFile writeAndOpen(Collection<Event> events) throws IOException {
+    Path path = folder.newFile().toPath();
+    MappedEventFile.write(events, path);
+    return MappedEventFile.open(path);
+  }
+
+  @Test
+  public void eventsSurviveTheRoundTrip() throws IOException {
+    List<Event> events = Arrays.asList(Events.events);
+
+    MappedEventFile file = writeAndOpen(events);
+
+    Assert.assertEquals(events.size(), file.size());
+    Assert.assertEquals(events, file.getEvents());
+  }
+
+  @Test
+  public void busyTimesMatchTheIndex() throws IOException {
+    List<Event> events = Arrays.asList(Events.events);
+    AttendeeIndex index = AttendeeIndex.of(events);
+
+    MappedEventFile file = writeAndOpen(events);
+
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+    for (String person : PEOPLE) {
+      int id = dictionary.idOf(person);
+      Assert.assertArrayEquals(person, index.busyIntervals(id, 0, Long.MAX_VALUE),
+          file.busyIntervals(id, 0, Long.MAX_VALUE));
+      Assert.assertArrayEquals(person, index.busyIntervals(id, 600, 900),
+          file.busyIntervals(id, 600, 900));
+    }
+  }
+
+  @Test
+  public void queriesReadTheFile() throws IOException {
+    List<Event> events = Arrays.asList(Events.events);
+    MappedEventFile file = writeAndOpen(events);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (int i = 0; i < PEOPLE.length; i++) {
+      MeetingRequest request =
+          new MeetingRequest(Arrays.asList(PEOPLE[i], PEOPLE[(i + 3) % PEOPLE.length]), 30);
+      request.addOptionalAttendee(PEOPLE[(i + 5) % PEOPLE.length]);
+      Assert.assertEquals(query.query(events, request), query.query(file, request));
+    }
+  }
+
+  @Test
+  public void namesOutsideTheFileAreNotInterned() throws IOException {
+    MappedEventFile file = writeAndOpen(Arrays.asList(Events.events));
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+
+    Assert.assertEquals(dictionary.idOf(PEOPLE[0]), file.idOf(PEOPLE[0]));
+    Assert.assertEquals(AttendeeDictionary.UNKNOWN, file.idOf("Not in the file"));
+    Assert.assertEquals(AttendeeDictionary.UNKNOWN, dictionary.idOf("Not in the file"));
+  }
+
+  @Test(expected = IOException.class)
+  public void otherFilesAreRejected() throws IOException {
+    Path path = folder.newFile().toPath();
+    Files.write(path, "not an event file at all".getBytes("UTF-8"));
+
+    MappedEventFile.open(path);
+  }
+}
@@ -0,0 +1,88 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MinuteBitmapIndexTest {
+  private static final String[] PEOPLE = {"Person 0", "Person 1", "Person 2", "Person 3"};
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  @Test
+  public void attendeesOutsideTheEventsAreNeverBusy() {
+    MinuteBitmapIndex index = MinuteBitmapIndex.of(Arrays.asList(
+        new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PEOPLE[1]))));
+    // Interned after the index was built, so its id is past every id in the index.
+    int laterId = AttendeeDictionary.global().intern("Interned later");
+
+    Assert.assertArrayEquals(new long[0], index.busyIntervals(laterId, 0, Long.MAX_VALUE));
+    Assert.assertArrayEquals(new long[0],
+        MinuteBitmapIndex.of(new ArrayList<>()).busyIntervals(laterId, 0, Long.MAX_VALUE));
+  }
+
+  @Test
+  public void busyTimeAtTheEndOfTheDay() {
+    Event event = new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0800AM, TimeRange.END_OF_DAY, true), Arrays.asList(PEOPLE[0]));
+    MinuteBitmapIndex index = MinuteBitmapIndex.of(Arrays.asList(event));
+    int id = AttendeeDictionary.global().idOf(PEOPLE[0]);
+
+    Assert.assertArrayEquals(new long[] {TIME_0800AM, TimeRange.END_OF_DAY + 1},
+        index.busyIntervals(id, TIME_0900AM, TIME_0900AM + 1));
+    Assert.assertArrayEquals(new long[] {TimeRange.START_OF_DAY, TIME_0800AM},
+        index.freeIntervals(new int[] {id}, TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1, 30));
+  }
+
+  @Test
+  public void matchesAttendeeIndex() {
+    Random random = new Random(3);
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+    for (int trial = 0; trial < 200; trial++) {
+      List<Event> events = new ArrayList<>();
+      for (int i = 0; i < random.nextInt(20); i++) {
+        int start = random.nextInt(TimeRange.END_OF_DAY + 1);
+        int end = start + random.nextInt(TimeRange.END_OF_DAY + 2 - start);
+        events.add(new Event("Event " + i, TimeRange.fromStartEnd(start, end, false),
+            Arrays.asList(PEOPLE[random.nextInt(PEOPLE.length)])));
+      }
+      AttendeeIndex expected = AttendeeIndex.of(events);
+      MinuteBitmapIndex actual = MinuteBitmapIndex.of(events);
+
+      int from = random.nextInt(TimeRange.END_OF_DAY + 1);
+      int to = from + random.nextInt(TimeRange.END_OF_DAY + 2 - from);
+      int[] ids = new int[PEOPLE.length];
+      for (int i = 0; i < PEOPLE.length; i++) {
+        ids[i] = dictionary.idOf(PEOPLE[i]);
+        Assert.assertArrayEquals("trial " + trial, expected.busyIntervals(ids[i], from, to),
+            actual.busyIntervals(ids[i], from, to));
+      }
+      int minLength = random.nextInt(120);
+      Assert.assertArrayEquals("trial " + trial, expected.freeIntervals(ids, from, to, minLength),
+          actual.freeIntervals(ids, from, to, minLength));
+    }
+  }
+}
@@ -0,0 +1,272 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class OptionalAttendeeSolverTest {
+  private static final String[] PEOPLE = {"A", "B", "C", "D", "E", "F"};
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void noOptionalAttendeesReturnsMandatoryRanges() {
+    long[] mandatory = {TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1};
+    OptionalAttendeeSolver solver = new OptionalAttendeeSolver(0, DURATION_30_MINUTES);
+
+    Assert.assertSame(mandatory, solver.solve(mandatory));
+  }
+
+  @Test
+  public void nobodyCanAttendReturnsMandatoryRanges() {
+    long[] mandatory = {TIME_0800AM, TIME_1000AM};
+    OptionalAttendeeSolver solver = new OptionalAttendeeSolver(1, DURATION_30_MINUTES);
+    solver.addBusy(0, TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1);
+
+    Assert.assertSame(mandatory, solver.solve(mandatory));
+  }
+
+  @Test
+  public void windowsStopWhereAnotherAttendeeBecomesBusy() {
+    // Nobody can attend with both optional attendees, so every option leaves one of them out. The
+    // first option grows until attendee 1 becomes busy, and the search resumes from there.
+    //
+    // Optional : |-0-|  |----1----|
+    // Range    : |-------------------|
+    // Options  : |------|------------|
+
+    int time0845AM = TimeRange.getTimeInMinutes(8, 45);
+    long[] mandatory = {TIME_0800AM, TIME_1000AM};
+    OptionalAttendeeSolver solver = new OptionalAttendeeSolver(2, DURATION_30_MINUTES);
+    solver.addBusy(0, TIME_0800AM, TIME_0830AM);
+    solver.addBusy(1, time0845AM, TIME_0900AM + 45);
+
+    long[] actual = solver.solve(mandatory);
+    long[] expected = {TIME_0800AM, time0845AM, time0845AM, TIME_1000AM};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void busyIntervalSpanningSeveralRanges() {
+    // Attendee 0 is busy across all three ranges, so it still counts in the later ones after the
+    // earlier ranges have been scanned.
+    //
+    // Optional : |--------0---------|
+    //                  |1|
+    // Ranges   : |-|   |-|   |-|
+    // Options  : |-|         |-|
+
+    int time1030AM = TimeRange.getTimeInMinutes(10, 30);
+    long[] mandatory = {TIME_0800AM, TIME_0830AM, TIME_0900AM, TIME_0900AM + 30, TIME_1000AM,
+        time1030AM};
+    OptionalAttendeeSolver solver = new OptionalAttendeeSolver(2, DURATION_30_MINUTES);
+    solver.addBusy(0, TIME_0800AM + 15, TIME_1000AM + 15);
+    solver.addBusy(1, TIME_0900AM, TIME_0900AM + 30);
+
+    long[] actual = solver.solve(mandatory);
+    long[] expected = {TIME_0800AM, TIME_0830AM, TIME_1000AM, time1030AM};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void matchesMinuteByMinuteSearch() {
+    Random random = new Random(42);
+    for (int trial = 0; trial < 300; trial++) {
+      List<Event> events = new ArrayList<>();
+      int numEvents = random.nextInt(12);
+      for (int i = 0; i < numEvents; i++) {
+        int start = random.nextInt(24 * 4) * 15;
+        int duration = 15 + random.nextInt(16) * 15;
+        Set<String> attendees = new HashSet<>();
+        int numAttendees = 1 + random.nextInt(3);
+        for (int j = 0; j < numAttendees; j++) {
+          attendees.add(PEOPLE[random.nextInt(PEOPLE.length)]);
+        }
+        events.add(new Event("Event " + i,
+            TimeRange.fromStartDuration(start, Math.min(duration, 24 * 60 - start)), attendees));
+      }
+
+      List<String> mandatory = new ArrayList<>();
+      List<String> optional = new ArrayList<>();
+      for (String person : PEOPLE) {
+        int role = random.nextInt(3);
+        if (role == 0) {
+          mandatory.add(person);
+        } else if (role == 1) {
+          optional.add(person);
+        }
+      }
+      MeetingRequest request = new MeetingRequest(mandatory, 15 + random.nextInt(8) * 15);
+      for (String person : optional) {
+        request.addOptionalAttendee(person);
+      }
+
+      Collection<TimeRange> expected = ReferenceQuery.query(events, request);
+      Collection<TimeRange> actual = new FindMeetingQuery().query(events, request);
+      Assert.assertEquals("trial " + trial, new ArrayList<>(expected), new ArrayList<>(actual));
+      Assert.assertEquals("trial " + trial, new ArrayList<>(expected),
+          new FindMeetingQuery().stream(events, request).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void bestStartsWithTheSolution() {
+    // The best meeting times are the solution followed by worse ones, and asking for fewer of them
+    // returns a prefix of the same list, however early the search stops.
+    Random random = new Random(7);
+    for (int trial = 0; trial < 300; trial++) {
+      long[] mandatory = new long[2 * (1 + random.nextInt(5))];
+      long time = 0;
+      for (int i = 0; i < mandatory.length; i += 2) {
+        mandatory[i] = time + random.nextInt(60);
+        mandatory[i + 1] = mandatory[i] + 30 + random.nextInt(120);
+        time = mandatory[i + 1] + 1;
+      }
+
+      int numOptional = random.nextInt(4);
+      OptionalAttendeeSolver solver = new OptionalAttendeeSolver(numOptional, DURATION_30_MINUTES);
+      for (int i = 0; numOptional > 0 && i < 8; i++) {
+        long start = random.nextInt((int) time);
+        solver.addBusy(random.nextInt(numOptional), start, start + 1 + random.nextInt(90));
+      }
+
+      long[] solution = solver.solve(mandatory);
+      long[] all = solver.best(mandatory, Integer.MAX_VALUE);
+      Assert.assertArrayEquals(
+          "trial " + trial, solution, Arrays.copyOf(all, Math.min(solution.length, all.length)));
+      for (int k = 1; k <= all.length / 2; k++) {
+        Assert.assertArrayEquals(
+            "trial " + trial, Arrays.copyOf(all, 2 * k), solver.best(mandatory, k));
+      }
+    }
+  }
+
+  /**
+   * The original minute-by-minute search, kept as a reference for the solver.
+   */
+  private static final class ReferenceQuery {
+    static Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+      int duration = (int) request.getDuration();
+      Collection<String> optionalAttendees = request.getOptionalAttendees();
+
+      boolean[] viableTimes = new boolean[TimeRange.END_OF_DAY + 1];
+      Arrays.fill(viableTimes, true);
+      for (Event event : events) {
+        if (!event.getAttendees().stream().anyMatch(request.getAttendees()::contains)) {
+          continue;
+        }
+        for (int i = event.getWhen().start(); i < event.getWhen().end(); i++) {
+          viableTimes[i] = false;
+        }
+      }
+      List<TimeRange> mandatoryRanges = new ArrayList<>();
+      int start = 0;
+      int currentRun = 0;
+      for (int min = 0; min <= TimeRange.END_OF_DAY; min++) {
+        if (viableTimes[min]) {
+          currentRun++;
+        } else {
+          if (currentRun >= duration && currentRun > 0) {
+            mandatoryRanges.add(TimeRange.fromStartDuration(start, currentRun));
+          }
+          start = min + 1;
+          currentRun = 0;
+        }
+      }
+      if (currentRun >= duration) {
+        mandatoryRanges.add(TimeRange.fromStartDuration(start, currentRun));
+      }
+
+      List<TimeRange> best = new ArrayList<>();
+      int bestAttendance = 0;
+      for (TimeRange range : mandatoryRanges) {
+        List<TimeRange> ranges = new ArrayList<>();
+        int attendance = maxAttendance(range, events, ranges, optionalAttendees, duration);
+        if (attendance > bestAttendance) {
+          best = ranges;
+          bestAttendance = attendance;
+        } else if (attendance == bestAttendance) {
+          best.addAll(ranges);
+        }
+      }
+      return bestAttendance == 0 ? mandatoryRanges : best;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int maxAttendance(TimeRange range, Collection<Event> events,
+        List<TimeRange> ranges, Collection<String> optionalAttendees, int meetingDuration) {
+      int start = range.start();
+      int end = range.end();
+      Set<String>[] attendeesEveryMinute = new HashSet[range.duration()];
+      for (int i = 0; i < range.duration(); i++) {
+        attendeesEveryMinute[i] = new HashSet<>();
+      }
+      for (Event event : events) {
+        for (int min = Math.max(start, event.getWhen().start());
+             min < Math.min(end, event.getWhen().end()); min++) {
+          for (String attendee : event.getAttendees()) {
+            if (optionalAttendees.contains(attendee)) {
+              attendeesEveryMinute[min - start].add(attendee);
+            }
+          }
+        }
+      }
+
+      for (int numUnavailable = 0; numUnavailable < optionalAttendees.size(); numUnavailable++) {
+        for (int startMin = start; startMin <= end - meetingDuration; startMin++) {
+          Set<String> unavailable = new HashSet<>();
+          for (int min = startMin; min < startMin + meetingDuration; min++) {
+            unavailable.addAll(attendeesEveryMinute[min - start]);
+          }
+          if (unavailable.size() <= numUnavailable) {
+            int checkNextMin;
+            for (checkNextMin = startMin + meetingDuration; checkNextMin < end; checkNextMin++) {
+              unavailable.addAll(attendeesEveryMinute[checkNextMin - start]);
+              if (unavailable.size() > numUnavailable) {
+                break;
+              }
+            }
+            ranges.add(TimeRange.fromStartEnd(startMin, checkNextMin, false));
+            startMin = checkNextMin - 1;
+          }
+        }
+        if (ranges.size() > 0) {
+          return optionalAttendees.size() - numUnavailable;
+        }
+      }
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private static MeetingRequest request(String... attendees) {
+    return new MeetingRequest(Arrays.asList(attendees), DURATION_30_MINUTES);
+  }
+
+  @Test
+  public void attendeeOrderDoesNotMatter() {
+    AttendeeIndex index = AttendeeIndex.of(Arrays.asList(Events.events));
+    QueryCache cache = new QueryCache(10);
+
+    Collection<TimeRange> first = cache.query(index, request(PERSON_A, PERSON_B, PERSON_C));
+    Collection<TimeRange> second = cache.query(index, request(PERSON_C, PERSON_A, PERSON_B));
+
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, cache.getHits());
+    Assert.assertEquals(1, cache.getMisses());
+    Assert.assertEquals(0.5, cache.getHitRate(), 0);
+  }
+
+  @Test
+  public void differentRequestsDoNotShareEntries() {
+    AttendeeIndex index = AttendeeIndex.of(Arrays.asList(Events.events));
+    QueryCache cache = new QueryCache(10);
+    MeetingRequest optional = request(PERSON_A);
+    optional.addOptionalAttendee(PERSON_B);
+
+    cache.query(index, request(PERSON_A, PERSON_B));
+    cache.query(index, optional);
+    cache.query(index, new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60));
+
+    Assert.assertEquals(0, cache.getHits());
+    Assert.assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void editsMakeEntriesStale() {
+    EventStore store = new EventStore();
+    QueryCache cache = new QueryCache(10);
+    MeetingRequest request = request(PERSON_A);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), cache.query(store, request));
+
+    store.addEvent(new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A)));
+
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+    Assert.assertEquals(expected, cache.query(store, request));
+    Assert.assertEquals(0, cache.getHits());
+    Assert.assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  public void leastRecentlyUsedEntriesAreEvicted() {
+    AttendeeIndex index = AttendeeIndex.of(Arrays.asList(Events.events));
+    QueryCache cache = new QueryCache(2);
+
+    cache.query(index, request(PERSON_A));
+    cache.query(index, request(PERSON_B));
+    cache.query(index, request(PERSON_A));
+    cache.query(index, request(PERSON_C));
+
+    Assert.assertEquals(1, cache.getEvictions());
+    Assert.assertEquals(2, cache.size());
+
+    // Person B was used least recently, so Person A is still cached.
+    cache.query(index, request(PERSON_A));
+    Assert.assertEquals(2, cache.getHits());
+  }
+
+  @Test
+  public void staleResultsDoNotReplaceNewerOnes() throws Exception {
+    PausingSource source = new PausingSource();
+    QueryCache cache = new QueryCache(10);
+    MeetingRequest request = request(PERSON_A);
+
+    // Start a query at version 0 and hold it until a query at version 1 has been cached.
+    AtomicReference<Collection<TimeRange>> stale = new AtomicReference<>();
+    Thread thread = new Thread(() -> stale.set(cache.query(source, request)));
+    thread.start();
+    source.paused.await();
+
+    source.version = 1;
+    Collection<TimeRange> newer = cache.query(source, request);
+    source.resume.countDown();
+    thread.join();
+
+    Assert.assertNotSame(newer, stale.get());
+    Assert.assertSame(newer, cache.query(source, request));
+    Assert.assertEquals(1, cache.getHits());
+    Assert.assertEquals(2, cache.getMisses());
+  }
+
+  /**
+   * A source without busy times whose lookups wait for {@code resume} while it is at version 0.
+   */
+  private static final class PausingSource implements BusyTimes {
+    final CountDownLatch paused = new CountDownLatch(1);
+    final CountDownLatch resume = new CountDownLatch(1);
+    volatile long version = 0;
+
+    @Override
+    public long[] busyIntervals(int attendeeId, long from, long to) {
+      return Intervals.EMPTY;
+    }
+
+    @Override
+    public int idOf(String name) {
+      if (version == 0) {
+        paused.countDown();
+        try {
+          resume.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+      }
+      return AttendeeDictionary.UNKNOWN;
+    }
+
+    @Override
+    public long getVersion() {
+      return version;
+    }
+  }
+}
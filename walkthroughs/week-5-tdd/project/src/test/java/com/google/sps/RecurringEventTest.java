@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringEventTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // Wednesday, the first day of the year 2020.
+  private static final long DAY_1 =
+      EpochRange.toEpochMinute(Instant.parse("2020-01-01T00:00:00Z"));
+  private static final long DAY = EpochRange.MINUTES_PER_DAY;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final EpochRange STANDUP =
+      EpochRange.fromStartDuration(DAY_1 + TIME_0900AM, 15);
+
+  @Test
+  public void occurrencesOnlyCoverTheWindow() {
+    RecurringEvent standup = new RecurringEvent("Standup", STANDUP,
+        RecurringEvent.Frequency.DAILY, Long.MAX_VALUE, Arrays.asList(PERSON_A),
+        Arrays.asList(STANDUP.start() + 101 * DAY));
+
+    // Day 100 to day 103 of a series that never ends, where day 101 is cancelled.
+    EpochRange window = EpochRange.fromStartEnd(DAY_1 + 100 * DAY, DAY_1 + 103 * DAY, false);
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartDuration(STANDUP.start() + 100 * DAY, 15),
+        EpochRange.fromStartDuration(STANDUP.start() + 102 * DAY, 15));
+
+    Assert.assertEquals(expected, standup.occurrencesIn(window));
+  }
+
+  @Test
+  public void attendeesViewIsShared() {
+    RecurringEvent standup = new RecurringEvent("Standup", STANDUP,
+        RecurringEvent.Frequency.DAILY, Long.MAX_VALUE, Arrays.asList(PERSON_A));
+
+    Assert.assertSame(standup.getAttendees(), standup.getAttendees());
+    Assert.assertTrue(standup.getAttendees().contains(PERSON_A));
+  }
+
+  @Test
+  public void seriesEndsAtUntil() {
+    RecurringEvent review = new RecurringEvent("Review", STANDUP,
+        RecurringEvent.Frequency.WEEKLY, STANDUP.start() + 14 * DAY, Arrays.asList(PERSON_A));
+
+    EpochRange window = EpochRange.fromStartEnd(DAY_1 - DAY, DAY_1 + 60 * DAY, false);
+    List<EpochRange> expected = Arrays.asList(STANDUP,
+        EpochRange.fromStartDuration(STANDUP.start() + 7 * DAY, 15));
+
+    Assert.assertEquals(expected, review.occurrencesIn(window));
+  }
+
+  @Test
+  public void occurrenceOverlappingTheWindowStartIsIncluded() {
+    RecurringEvent standup = new RecurringEvent("Standup", STANDUP,
+        RecurringEvent.Frequency.DAILY, Long.MAX_VALUE, Arrays.asList(PERSON_A));
+
+    EpochRange window = EpochRange.fromStartEnd(STANDUP.start() + DAY + 5, DAY_1 + 2 * DAY, false);
+
+    Assert.assertEquals(Arrays.asList(EpochRange.fromStartDuration(STANDUP.start() + DAY, 15)),
+        standup.occurrencesIn(window));
+  }
+
+  @Test
+  public void queriesMatchMaterializedEvents() {
+    // A daily standup for two people over a quarter, next to a one-off meeting.
+    RecurringEvent standup = new RecurringEvent("Standup", STANDUP,
+        RecurringEvent.Frequency.DAILY, DAY_1 + 90 * DAY, Arrays.asList(PERSON_A, PERSON_B),
+        Arrays.asList(STANDUP.start() + 31 * DAY));
+    DatedEvent meeting = new DatedEvent("Meeting",
+        EpochRange.fromStartEnd(DAY_1 + 30 * DAY + TIME_0900AM, DAY_1 + 30 * DAY + TIME_1000AM,
+            false),
+        Arrays.asList(PERSON_A));
+
+    List<DatedEvent> materialized = new ArrayList<>();
+    materialized.add(meeting);
+    for (EpochRange occurrence : standup.occurrencesIn(
+        EpochRange.fromStartEnd(DAY_1, DAY_1 + 90 * DAY, false))) {
+      materialized.add(new DatedEvent("Standup", occurrence, Arrays.asList(PERSON_A, PERSON_B)));
+    }
+    Assert.assertEquals(90, materialized.size());
+
+    BusyTimes lazy = new RecurringBusyTimes(
+        AttendeeIndex.ofDatedEvents(Collections.singletonList(meeting)), Arrays.asList(standup));
+    BusyTimes eager = AttendeeIndex.ofDatedEvents(materialized);
+
+    HorizonQuery query = new HorizonQuery();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 60 * 23);
+    request.addOptionalAttendee(PERSON_B);
+    EpochRange window = EpochRange.fromStartEnd(DAY_1 + 28 * DAY, DAY_1 + 35 * DAY, false);
+
+    Assert.assertEquals(query.query(eager, request, window), query.query(lazy, request, window));
+  }
+}
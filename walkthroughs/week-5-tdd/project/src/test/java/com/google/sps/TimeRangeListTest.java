@@ -0,0 +1,143 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class TimeRangeListTest {
+  private static TimeRangeList list(long... packed) {
+    TimeRangeList list = new TimeRangeList();
+    for (int i = 0; i < packed.length; i += 2) {
+      list.add(packed[i], packed[i + 1]);
+    }
+    return list;
+  }
+
+  @Test
+  public void sortOrdersByStartThenEnd() {
+    TimeRangeList list = list(30, 40, 10, 50, 10, 20, 0, 5);
+
+    list.sort();
+
+    Assert.assertArrayEquals(new long[] {0, 5, 10, 20, 10, 50, 30, 40}, list.toArray());
+  }
+
+  @Test
+  public void mergeCombinesOverlappingAndTouchingRanges() {
+    TimeRangeList list = list(30, 40, 10, 20, 20, 25, 50, 50, 0, 5, 35, 45);
+
+    list.merge();
+
+    Assert.assertArrayEquals(new long[] {0, 5, 10, 25, 30, 45}, list.toArray());
+  }
+
+  @Test
+  public void wrappedEmptyArrayGrows() {
+    TimeRangeList list = TimeRangeList.wrap(new long[0]);
+
+    list.add(10, 20);
+    list.add(30, 40);
+
+    Assert.assertArrayEquals(new long[] {10, 20, 30, 40}, list.toArray());
+  }
+
+  @Test
+  public void wrappedArrayIsCopiedBeforeGrowing() {
+    long[] packed = {10, 20};
+    TimeRangeList list = TimeRangeList.wrap(packed);
+
+    list.add(30, 40);
+
+    Assert.assertArrayEquals(new long[] {10, 20}, packed);
+    Assert.assertArrayEquals(new long[] {10, 20, 30, 40}, list.toArray());
+  }
+
+  @Test
+  public void subtractSplitsRanges() {
+    // This  : |----------|     |-----|
+    // Other :   |-|  |-------------|
+    // Result: |-| |--|           |-|
+
+    TimeRangeList result = list(0, 10, 15, 20).subtract(list(2, 3, 5, 18));
+
+    Assert.assertArrayEquals(new long[] {0, 2, 3, 5, 18, 20}, result.toArray());
+  }
+
+  @Test
+  public void matchesMinuteSets() {
+    Random random = new Random(11);
+    for (int trial = 0; trial < 500; trial++) {
+      TimeRangeList a = randomList(random);
+      TimeRangeList b = randomList(random);
+      BitSet minutesA = minutes(a);
+      BitSet minutesB = minutes(b);
+      a.merge();
+      b.merge();
+      Assert.assertEquals(minutesA, minutes(a));
+
+      BitSet both = (BitSet) minutesA.clone();
+      both.and(minutesB);
+      Assert.assertEquals("trial " + trial, both, minutes(a.intersect(b)));
+      assertMerged(a.intersect(b));
+
+      BitSet onlyA = (BitSet) minutesA.clone();
+      onlyA.andNot(minutesB);
+      Assert.assertEquals("trial " + trial, onlyA, minutes(a.subtract(b)));
+      assertMerged(a.subtract(b));
+    }
+  }
+
+  @Test
+  public void boxesOnlyAtTheEnd() {
+    TimeRangeList list = list(60, 120, 0, 30);
+    list.sort();
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 30, false),
+        TimeRange.fromStartEnd(60, 120, false)), list.toTimeRanges());
+  }
+
+  private static TimeRangeList randomList(Random random) {
+    TimeRangeList list = new TimeRangeList();
+    for (int i = random.nextInt(10); i > 0; i--) {
+      long start = random.nextInt(200);
+      list.add(start, start + random.nextInt(40));
+    }
+    return list;
+  }
+
+  private static BitSet minutes(TimeRangeList list) {
+    BitSet minutes = new BitSet();
+    for (int i = 0; i < list.size(); i++) {
+      minutes.set((int) list.start(i), (int) list.end(i));
+    }
+    return minutes;
+  }
+
+  private static void assertMerged(TimeRangeList list) {
+    for (int i = 0; i < list.size(); i++) {
+      Assert.assertTrue(list.start(i) < list.end(i));
+      Assert.assertTrue(i == 0 || list.end(i - 1) < list.start(i));
+    }
+  }
+}
@@ -0,0 +1,161 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WorkingHoursTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // Friday, January 3rd 2020, and the Monday after it.
+  private static final long FRIDAY =
+      EpochRange.toEpochMinute(Instant.parse("2020-01-03T00:00:00Z"));
+  private static final long MONDAY = FRIDAY + 3 * EpochRange.MINUTES_PER_DAY;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1400PM = TimeRange.getTimeInMinutes(14, 0);
+  private static final int TIME_1500PM = TimeRange.getTimeInMinutes(15, 0);
+  private static final int TIME_1600PM = TimeRange.getTimeInMinutes(16, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final LocalTime NINE = LocalTime.of(9, 0);
+  private static final LocalTime FIVE = LocalTime.of(17, 0);
+
+  private static final WorkingHours LONDON = WorkingHours.weekdays(ZoneOffset.UTC, NINE, FIVE);
+  private static final WorkingHours NEW_YORK =
+      WorkingHours.weekdays(ZoneId.of("America/New_York"), NINE, FIVE);
+
+  private static final AttendeeIndex NO_EVENTS =
+      AttendeeIndex.ofDatedEvents(Collections.<DatedEvent>emptyList());
+
+  private static final int DURATION_1_HOUR = 60;
+
+  @Test
+  public void onlyOverlappingHoursAcrossZonesAreOffered() {
+    // Person A works 9am to 5pm UTC and Person B 9am to 5pm in New York, which is 2pm to 10pm UTC.
+    // Person A is also busy from 3pm to 4pm UTC.
+    // Hours A : |   |-------------------|
+    // Hours B :             |-------------------|
+    // Events  :                |--A--|
+    // Options :             |--|     |--|
+
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_1500PM, TIME_1600PM, false), Arrays.asList(PERSON_A)));
+    Map<String, WorkingHours> workingHours = new HashMap<>();
+    workingHours.put(PERSON_A, LONDON);
+    workingHours.put(PERSON_B, NEW_YORK);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_1_HOUR);
+
+    Collection<TimeRange> actual =
+        new FindMeetingQuery().query(events, request, FRIDAY, workingHours);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1400PM, TIME_1500PM, false),
+            TimeRange.fromStartEnd(TIME_1600PM, TIME_0500PM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void weekendsAreBusy() {
+    BusyTimes busyTimes =
+        new WorkingHoursBusyTimes(NO_EVENTS, Collections.singletonMap(PERSON_A, LONDON));
+    EpochRange window = EpochRange.fromStartEnd(FRIDAY, MONDAY + EpochRange.MINUTES_PER_DAY, false);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<EpochRange> actual = new HorizonQuery().query(busyTimes, request, window);
+    List<EpochRange> expected =
+        Arrays.asList(EpochRange.fromStartEnd(FRIDAY + TIME_0900AM, FRIDAY + TIME_0500PM, false),
+            EpochRange.fromStartEnd(MONDAY + TIME_0900AM, MONDAY + TIME_0500PM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void hoursFollowDaylightSavingTime() {
+    // Clocks in New York went forward on Sunday, March 8th 2020, so the Monday after that starts at
+    // 1pm UTC instead of 2pm.
+    long monday = EpochRange.toEpochMinute(Instant.parse("2020-03-09T00:00:00Z"));
+    BusyTimes busyTimes =
+        new WorkingHoursBusyTimes(NO_EVENTS, Collections.singletonMap(PERSON_B, NEW_YORK));
+    EpochRange window = EpochRange.fromStartDuration(monday, EpochRange.MINUTES_PER_DAY);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_1_HOUR);
+
+    List<EpochRange> actual = new HorizonQuery().query(busyTimes, request, window);
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(monday + TimeRange.getTimeInMinutes(13, 0),
+            monday + TimeRange.getTimeInMinutes(21, 0), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesOutsideTheirHoursAreDropped() {
+    // Person B is optional but only works from 2pm UTC, so only the afternoon of Person A is
+    // returned.
+    Map<String, WorkingHours> workingHours = new HashMap<>();
+    workingHours.put(PERSON_A, LONDON);
+    workingHours.put(PERSON_B, NEW_YORK);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> actual = new FindMeetingQuery().query(
+        Collections.<Event>emptyList(), request, FRIDAY, workingHours);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1400PM, TIME_0500PM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void bitmapSourceMatchesIntervalSource() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    Map<String, WorkingHours> workingHours = new HashMap<>();
+    workingHours.put("Amelia", NEW_YORK);
+    workingHours.put("Ava", LONDON);
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Amelia", "Ava"), 30);
+    request.addOptionalAttendee("Emma");
+
+    FindMeetingQuery query = new FindMeetingQuery();
+    Collection<TimeRange> expected = query.query(
+        WorkingHoursBusyTimes.onDay(AttendeeIndex.of(events), FRIDAY, workingHours), request);
+    Collection<TimeRange> actual = query.query(
+        WorkingHoursBusyTimes.onDay(MinuteBitmapIndex.of(events), FRIDAY, workingHours), request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void startMustBeBeforeEnd() {
+    new WorkingHours(ZoneOffset.UTC, FIVE, NINE, Arrays.asList(DayOfWeek.MONDAY));
+  }
+}
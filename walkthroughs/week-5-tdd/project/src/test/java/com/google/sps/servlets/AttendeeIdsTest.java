@@ -0,0 +1,83 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.AttendeeDictionary;
+import com.google.sps.AttendeeIndex;
+import com.google.sps.BusyTimes;
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeIdsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final BusyTimes SOURCE = AttendeeIndex.of(Arrays.asList(
+      new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A, PERSON_B))));
+
+  @Test
+  public void idsAreSortedAndDistinct() throws PayloadTooLargeException {
+    AttendeeIds.Builder ids = new AttendeeIds(SOURCE, 10).newList();
+    ids.add(PERSON_B);
+    ids.add(PERSON_A);
+    ids.add(PERSON_B);
+
+    int[] expected = {SOURCE.idOf(PERSON_A), SOURCE.idOf(PERSON_B)};
+    Arrays.sort(expected);
+    Assert.assertArrayEquals(expected, ids.build());
+  }
+
+  @Test
+  public void unknownNamesAreDropped() throws PayloadTooLargeException {
+    AttendeeIds.Builder ids = new AttendeeIds(SOURCE, 10).newList();
+    ids.add("Nobody");
+    ids.add(PERSON_A);
+
+    Assert.assertArrayEquals(new int[] {SOURCE.idOf(PERSON_A)}, ids.build());
+    Assert.assertEquals(AttendeeDictionary.UNKNOWN, AttendeeDictionary.global().idOf("Nobody"));
+  }
+
+  @Test
+  public void limitIsSharedByEveryList() throws PayloadTooLargeException {
+    AttendeeIds attendeeIds = new AttendeeIds(SOURCE, 3);
+    AttendeeIds.Builder attendees = attendeeIds.newList();
+    AttendeeIds.Builder optionalAttendees = attendeeIds.newList();
+    attendees.add(PERSON_A);
+    attendees.add("Nobody");
+    optionalAttendees.add(PERSON_B);
+
+    try {
+      optionalAttendees.add(PERSON_A);
+      Assert.fail();
+    } catch (PayloadTooLargeException expected) {
+      // The fourth name goes over the limit, whichever list it is in.
+    }
+  }
+
+  @Test
+  public void namesAreReadFromTheDictionary() {
+    int[] ids = {SOURCE.idOf(PERSON_A), SOURCE.idOf(PERSON_B)};
+
+    Assert.assertEquals(Arrays.asList(PERSON_A, PERSON_B), AttendeeIds.names(ids));
+    Assert.assertEquals(Arrays.asList(), AttendeeIds.names(null));
+  }
+}
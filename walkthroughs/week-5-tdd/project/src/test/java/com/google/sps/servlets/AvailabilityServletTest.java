@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityServletTest {
+  private final AvailabilityServlet servlet = new AvailabilityServlet();
+  private final StringWriter body = new StringWriter();
+  private int status = HttpServletResponse.SC_OK;
+
+  // Posts {@code json} to the servlet through fakes of the request and the response.
+  private void post(String json) throws Exception {
+    HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(
+        HttpServletRequest.class.getClassLoader(), new Class<?>[] {HttpServletRequest.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("getReader")) {
+            return new BufferedReader(new StringReader(json));
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+    HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(
+        HttpServletResponse.class.getClassLoader(), new Class<?>[] {HttpServletResponse.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "sendError":
+              status = (Integer) args[0];
+              return null;
+            case "setContentType":
+              return null;
+            case "getWriter":
+              return new PrintWriter(body, true);
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+    servlet.doPost(request, response);
+  }
+
+  @Test
+  public void answersValidRequest() throws Exception {
+    post("{\"attendees\": [\"Nobody\"], \"bucket_minutes\": 60}");
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, status);
+    Assert.assertEquals("{\"attendees\":1,\"bucket_minutes\":60,\"runs\":[[1,24]]}",
+        body.toString().trim());
+  }
+
+  @Test
+  public void malformedBodyIsBadRequest() throws Exception {
+    post("{\"attendees\": [\"Person A\"");
+
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, status);
+  }
+
+  @Test
+  public void wrongValueTypeIsBadRequest() throws Exception {
+    post("{\"attendees\": [], \"bucket_minutes\": \"soon\"}");
+
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, status);
+  }
+
+  @Test
+  public void badBucketSizeIsBadRequest() throws Exception {
+    post("{\"attendees\": [], \"bucket_minutes\": 0}");
+
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, status);
+  }
+}
@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.AttendeeIndex;
+import com.google.sps.BusyTimes;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BinaryQueryCodecTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final BusyTimes SOURCE = AttendeeIndex.of(Arrays.asList(
+      new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A, PERSON_B, PERSON_C))));
+
+  private final BinaryQueryCodec codec = new BinaryQueryCodec(SOURCE, 1000, 5);
+
+  // Encodes a request the way a client would.
+  private static byte[] encode(int duration, String[] attendees, String[] optionalAttendees)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(bytes);
+    data.writeInt(duration);
+    for (String[] names : new String[][] {attendees, optionalAttendees}) {
+      data.writeInt(names.length);
+      for (String name : names) {
+        data.writeUTF(name);
+      }
+    }
+    data.flush();
+    return bytes.toByteArray();
+  }
+
+  private MeetingRequest read(byte[] bytes) throws IOException {
+    return codec.readRequest(new ByteArrayInputStream(bytes));
+  }
+
+  @Test
+  public void requestSurvivesTheRoundTrip() throws IOException {
+    MeetingRequest request = read(encode(45, new String[] {PERSON_B, PERSON_A, "Nobody"},
+        new String[] {PERSON_C, PERSON_C}));
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_B)),
+        new HashSet<>(request.getAttendees()));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_C)),
+        new HashSet<>(request.getOptionalAttendees()));
+    Assert.assertEquals(45, request.getDuration());
+  }
+
+  @Test
+  public void timeRangesSurviveTheRoundTrip() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    codec.writeTimeRanges(Arrays.asList(TimeRange.fromStartDuration(480, 60),
+        TimeRange.fromStartDuration(TimeRange.END_OF_DAY - 29, 30)), bytes);
+
+    DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    Assert.assertEquals(2, data.readInt());
+    Assert.assertEquals(480, data.readUnsignedShort());
+    Assert.assertEquals(60, data.readUnsignedShort());
+    Assert.assertEquals(TimeRange.END_OF_DAY - 29, data.readUnsignedShort());
+    Assert.assertEquals(30, data.readUnsignedShort());
+    Assert.assertEquals(-1, data.read());
+  }
+
+  @Test
+  public void emptyBodyIsNull() throws IOException {
+    Assert.assertNull(read(new byte[0]));
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void zeroDurationIsRejected() throws IOException {
+    read(encode(0, new String[] {PERSON_A}, new String[0]));
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void truncatedBodyIsRejected() throws IOException {
+    byte[] bytes = encode(30, new String[] {PERSON_A}, new String[0]);
+    read(Arrays.copyOf(bytes, bytes.length - 2));
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void trailingDataIsRejected() throws IOException {
+    byte[] bytes = encode(30, new String[] {PERSON_A}, new String[0]);
+    read(Arrays.copyOf(bytes, bytes.length + 1));
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void negativeCountIsRejected() throws IOException {
+    read(new byte[] {0, 0, 0, 30, -1, -1, -1, -1});
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void invalidNameIsRejected() throws IOException {
+    // A count of one, then a name of one byte that starts a two-byte sequence.
+    read(new byte[] {0, 0, 0, 30, 0, 0, 0, 1, 0, 1, (byte) 0xC0, 0, 0, 0, 0});
+  }
+
+  @Test(expected = PayloadTooLargeException.class)
+  public void tooManyAttendeesAreRejected() throws IOException {
+    read(encode(30, new String[] {PERSON_A, "1", "2"}, new String[] {"3", "4", "5"}));
+  }
+
+  @Test(expected = PayloadTooLargeException.class)
+  public void tooLongRequestIsRejected() throws IOException {
+    char[] name = new char[1000];
+    Arrays.fill(name, 'x');
+    read(encode(30, new String[] {new String(name)}, new String[0]));
+  }
+}
@@ -0,0 +1,127 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.AttendeeIndex;
+import com.google.sps.BusyTimes;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class JsonQueryCodecTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final BusyTimes SOURCE = AttendeeIndex.of(Arrays.asList(
+      new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A, PERSON_B, PERSON_C))));
+
+  private final JsonQueryCodec codec = new JsonQueryCodec(SOURCE, 1000, 5);
+
+  private MeetingRequest read(String json) throws IOException {
+    return codec.readRequest(new StringReader(json));
+  }
+
+  @Test
+  public void readsEveryField() throws IOException {
+    MeetingRequest request = read("{\"optional_attendees\": [\"Person C\"], \"duration\": 30,"
+        + " \"attendees\": [\"Person B\", \"Person A\"], \"ignored\": {\"x\": [1]}}");
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_B)),
+        new HashSet<>(request.getAttendees()));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_C)),
+        new HashSet<>(request.getOptionalAttendees()));
+    Assert.assertEquals(30, request.getDuration());
+  }
+
+  @Test
+  public void duplicateAndUnknownNamesAreDropped() throws IOException {
+    MeetingRequest request =
+        read("{\"attendees\": [\"Person A\", \"Nobody\", \"Person A\"], \"duration\": 30}");
+
+    Assert.assertEquals(Arrays.asList(PERSON_A), new ArrayList<>(request.getAttendees()));
+  }
+
+  @Test
+  public void emptyBodyIsNull() throws IOException {
+    Assert.assertNull(read(""));
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void missingDurationIsRejected() throws IOException {
+    read("{\"attendees\": [\"Person A\"]}");
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void zeroDurationIsRejected() throws IOException {
+    read("{\"attendees\": [\"Person A\"], \"duration\": 0}");
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void negativeDurationIsRejected() throws IOException {
+    read("{\"attendees\": [\"Person A\"], \"duration\": -30}");
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void truncatedBodyIsRejected() throws IOException {
+    read("{\"attendees\": [\"Person A\"");
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void wrongValueTypeIsRejected() throws IOException {
+    read("{\"duration\": \"soon\"}");
+  }
+
+  @Test(expected = MalformedRequestException.class)
+  public void nonObjectIsRejected() throws IOException {
+    read("[30]");
+  }
+
+  @Test(expected = PayloadTooLargeException.class)
+  public void tooManyAttendeesAreRejected() throws IOException {
+    // Unknown names count towards the limit, which is shared by both lists.
+    read("{\"attendees\": [\"Person A\", \"1\", \"2\"], \"optional_attendees\": [\"3\", \"4\","
+        + " \"5\"], \"duration\": 30}");
+  }
+
+  @Test(expected = PayloadTooLargeException.class)
+  public void tooLongRequestIsRejected() throws IOException {
+    char[] padding = new char[1000];
+    Arrays.fill(padding, ' ');
+    read("{\"duration\": 30" + new String(padding) + "}");
+  }
+
+  @Test
+  public void writesTimeRanges() throws IOException {
+    StringWriter out = new StringWriter();
+    codec.writeTimeRanges(Arrays.asList(TimeRange.fromStartDuration(480, 60),
+        TimeRange.fromStartDuration(600, 30)), out);
+
+    Assert.assertEquals(
+        "[{\"start\":480,\"duration\":60},{\"start\":600,\"duration\":30}]", out.toString());
+  }
+}
@@ -0,0 +1,55 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MediaTypesTest {
+  private static final String BINARY = BinaryQueryCodec.CONTENT_TYPE;
+
+  @Test
+  public void contentTypeIgnoresParametersAndCase() {
+    Assert.assertTrue(MediaTypes.is("Application/X-SPS-Query; charset=binary", BINARY));
+    Assert.assertFalse(MediaTypes.is("application/x-sps-query-v2", BINARY));
+    Assert.assertFalse(MediaTypes.is("text/plain; note=application/x-sps-query", BINARY));
+    Assert.assertFalse(MediaTypes.is(null, BINARY));
+  }
+
+  @Test
+  public void mostSpecificRangeDecidesTheQuality() {
+    String accept = "application/x-sps-query;q=0, application/*;q=0.5, */*;q=0.1";
+
+    Assert.assertEquals(0, MediaTypes.quality(accept, BINARY), 0);
+    Assert.assertEquals(0.5, MediaTypes.quality(accept, "application/json"), 0);
+    Assert.assertEquals(0.1, MediaTypes.quality(accept, "text/html"), 0);
+    Assert.assertEquals(0, MediaTypes.quality("text/html", BINARY), 0);
+  }
+
+  @Test
+  public void responseFormFollowsTheAcceptHeader() {
+    Assert.assertTrue(QueryServlet.prefersBinary(null, true));
+    Assert.assertFalse(QueryServlet.prefersBinary(null, false));
+    Assert.assertTrue(QueryServlet.prefersBinary(BINARY + ", application/json;q=0.5", false));
+    Assert.assertFalse(QueryServlet.prefersBinary(BINARY + ";q=0, application/json", true));
+    Assert.assertFalse(QueryServlet.prefersBinary(BINARY + ";q=0", true));
+    Assert.assertTrue(QueryServlet.prefersBinary("*/*", true));
+    Assert.assertFalse(QueryServlet.prefersBinary("*/*", false));
+  }
+}
@@ -0,0 +1,299 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryServletTest {
+  private static final String WHOLE_DAY_REQUEST = "{\"attendees\": [], \"duration\": 60}";
+
+  private final QueryServlet servlet = new QueryServlet();
+
+  @After
+  public void tearDown() {
+    servlet.destroy();
+    System.clearProperty(QueryServlet.ASYNC_PROPERTY);
+    System.clearProperty(QueryServlet.THREADS_PROPERTY);
+    System.clearProperty(QueryServlet.QUEUE_PROPERTY);
+    System.clearProperty(QueryServlet.QUEUE_MILLIS_PROPERTY);
+  }
+
+  private void initAsync(int threads, int queue) {
+    // Long enough that no request runs out of time in the queue while a test is waiting on it.
+    initAsync(threads, queue, 60000);
+  }
+
+  private void initAsync(int threads, int queue, long queueMillis) {
+    System.setProperty(QueryServlet.ASYNC_PROPERTY, "true");
+    System.setProperty(QueryServlet.THREADS_PROPERTY, Integer.toString(threads));
+    System.setProperty(QueryServlet.QUEUE_PROPERTY, Integer.toString(queue));
+    System.setProperty(QueryServlet.QUEUE_MILLIS_PROPERTY, Long.toString(queueMillis));
+    servlet.init();
+  }
+
+  @Test
+  public void requestIsAnsweredOnTheContainerThreadByDefault() throws Exception {
+    servlet.init();
+    Exchange exchange = new Exchange(new StringReader(WHOLE_DAY_REQUEST));
+
+    servlet.doPost(exchange.request, exchange.response);
+
+    Assert.assertFalse(exchange.async);
+    Assert.assertEquals(HttpServletResponse.SC_OK, exchange.status);
+    Assert.assertEquals("[{\"start\":0,\"duration\":1440}]", exchange.body.toString());
+  }
+
+  @Test
+  public void asyncRequestIsAnsweredWithoutAContainerTimeout() throws Exception {
+    initAsync(2, 4);
+    Exchange exchange = new Exchange(new StringReader(WHOLE_DAY_REQUEST));
+
+    servlet.doPost(exchange.request, exchange.response);
+    exchange.awaitCompletion();
+
+    Assert.assertTrue(exchange.async);
+    Assert.assertEquals(0, exchange.timeout);
+    Assert.assertEquals(HttpServletResponse.SC_OK, exchange.status);
+    Assert.assertEquals("[{\"start\":0,\"duration\":1440}]", exchange.body.toString());
+  }
+
+  @Test
+  public void fullQueueIsRejected() throws Exception {
+    initAsync(1, 1);
+    BlockingReader blocked = new BlockingReader();
+    Exchange running = new Exchange(blocked);
+    Exchange queued = new Exchange(new StringReader(WHOLE_DAY_REQUEST));
+    Exchange rejected = new Exchange(new StringReader(WHOLE_DAY_REQUEST));
+
+    servlet.doPost(running.request, running.response);
+    blocked.awaitRead();
+    servlet.doPost(queued.request, queued.response);
+    servlet.doPost(rejected.request, rejected.response);
+
+    Assert.assertEquals(1, rejected.completions);
+    Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, rejected.status);
+    Assert.assertEquals("1", rejected.headers.get("Retry-After"));
+
+    blocked.release();
+    running.awaitCompletion();
+    queued.awaitCompletion();
+    Assert.assertEquals(HttpServletResponse.SC_OK, queued.status);
+  }
+
+  @Test
+  public void waitInTheQueueRunsOutOnce() throws Exception {
+    initAsync(1, 1, 50);
+    BlockingReader blocked = new BlockingReader();
+    Exchange running = new Exchange(blocked);
+    Exchange queued = new Exchange(new StringReader(WHOLE_DAY_REQUEST));
+
+    servlet.doPost(running.request, running.response);
+    blocked.awaitRead();
+    servlet.doPost(queued.request, queued.response);
+    queued.awaitCompletion();
+    blocked.release();
+    running.awaitCompletion();
+    servlet.destroy();
+
+    Assert.assertEquals(1, queued.completions);
+    Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, queued.status);
+    Assert.assertEquals("1", queued.headers.get("Retry-After"));
+    Assert.assertEquals("", queued.body.toString());
+  }
+
+  @Test
+  public void waitRunningOutDoesNotCutShortARunningRequest() throws Exception {
+    initAsync(1, 1, 50);
+    BlockingReader blocked = new BlockingReader();
+    Exchange running = new Exchange(blocked);
+
+    servlet.doPost(running.request, running.response);
+    blocked.awaitRead();
+    // Hold the request well past its wait, as a slow query would.
+    Thread.sleep(200);
+    blocked.release();
+    running.awaitCompletion();
+    servlet.destroy();
+
+    Assert.assertEquals(1, running.completions);
+    Assert.assertEquals(HttpServletResponse.SC_OK, running.status);
+    Assert.assertNull(running.headers.get("Retry-After"));
+    Assert.assertEquals("[{\"start\":0,\"duration\":1440}]", running.body.toString());
+  }
+
+  @Test
+  public void destroyRejectsQueuedRequests() throws Exception {
+    initAsync(1, 1);
+    BlockingReader blocked = new BlockingReader();
+    Exchange running = new Exchange(blocked);
+    Exchange queued = new Exchange(new StringReader(WHOLE_DAY_REQUEST));
+
+    servlet.doPost(running.request, running.response);
+    blocked.awaitRead();
+    servlet.doPost(queued.request, queued.response);
+    Thread destroy = new Thread(servlet::destroy);
+    destroy.start();
+    queued.awaitCompletion();
+    blocked.release();
+    destroy.join();
+
+    Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, queued.status);
+    Assert.assertEquals(1, running.completions);
+    Assert.assertEquals(HttpServletResponse.SC_OK, running.status);
+  }
+
+  /**
+   * A request and its response, faked with proxies that record what the servlet does with them.
+   */
+  private static final class Exchange {
+    // Set once by the constructor, but not final, since the fakes refer to each other.
+    HttpServletRequest request;
+    HttpServletResponse response;
+    final Map<String, String> headers = new HashMap<>();
+    final StringWriter body = new StringWriter();
+    final CountDownLatch completed = new CountDownLatch(1);
+    volatile int status = HttpServletResponse.SC_OK;
+    volatile boolean async;
+    volatile long timeout = -1;
+    volatile int completions;
+
+    Exchange(Reader content) {
+      AsyncContext asyncContext = proxy(AsyncContext.class, (method, args) -> {
+        switch (method) {
+          case "setTimeout":
+            timeout = (Long) args[0];
+            return null;
+          case "getRequest":
+            return request;
+          case "getResponse":
+            return response;
+          case "complete":
+            completions++;
+            completed.countDown();
+            return null;
+          default:
+            throw new UnsupportedOperationException(method);
+        }
+      });
+      request = proxy(HttpServletRequest.class, (method, args) -> {
+        switch (method) {
+          case "startAsync":
+            async = true;
+            return asyncContext;
+          case "getContentType":
+            return "application/json";
+          case "getHeader":
+            return null;
+          case "getContentLengthLong":
+            return -1L;
+          case "getReader":
+            return new BufferedReader(content);
+          default:
+            throw new UnsupportedOperationException(method);
+        }
+      });
+      response = proxy(HttpServletResponse.class, (method, args) -> {
+        switch (method) {
+          case "setHeader":
+            headers.put((String) args[0], (String) args[1]);
+            return null;
+          case "sendError":
+            status = (Integer) args[0];
+            return null;
+          case "setContentType":
+            return null;
+          case "getWriter":
+            return new PrintWriter(body);
+          case "isCommitted":
+            return false;
+          default:
+            throw new UnsupportedOperationException(method);
+        }
+      });
+    }
+
+    void awaitCompletion() throws InterruptedException {
+      Assert.assertTrue(completed.await(10, TimeUnit.SECONDS));
+    }
+  }
+
+  private interface Handler {
+    Object handle(String method, Object[] args);
+  }
+
+  private static <T> T proxy(Class<T> type, Handler handler) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        (proxy, method, args) -> handler.handle(method.getName(), args)));
+  }
+
+  /**
+   * A request body that holds up the worker reading it until it is released, ignoring interrupts
+   * so that the servlet shutting down does not cut it short.
+   */
+  private static final class BlockingReader extends Reader {
+    private final CountDownLatch read = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final Reader content = new StringReader(WHOLE_DAY_REQUEST);
+
+    void awaitRead() throws InterruptedException {
+      Assert.assertTrue(read.await(10, TimeUnit.SECONDS));
+    }
+
+    void release() {
+      released.countDown();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+      read.countDown();
+      boolean interrupted = false;
+      while (true) {
+        try {
+          released.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return content.read(buffer, offset, length);
+    }
+
+    @Override
+    public void close() {}
+  }
+}